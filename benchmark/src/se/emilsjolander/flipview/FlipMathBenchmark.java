@@ -0,0 +1,136 @@
+package se.emilsjolander.flipview;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ *
+ * @author emilsjolander
+ *
+ *         Measures the flip math a FlipView runs for every touch event and
+ *         every frame. The touch events replay a synthetic drag: a user
+ *         flipping back and forth across a 1080 pixel wide view of 10 pages,
+ *         over flipping at both ends, sampled at 120 events per second while
+ *         frames are drawn at 60 per second.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FlipMathBenchmark {
+
+	private static final int VIEW_SIZE = 1080;
+	private static final int PAGE_COUNT = 10;
+	private static final int TOUCH_EVENTS_PER_SECOND = 120;
+	private static final int FRAMES_PER_SECOND = 60;
+	private static final int MINIMUM_VELOCITY = 50;
+	private static final int MAX_SINGLE_PAGE_FLIP_ANIM_DURATION = 300;
+
+	// pixels moved between two touch events, one second worth of events
+	private final float[] mTouchDeltas = new float[TOUCH_EVENTS_PER_SECOND];
+	private final RubberBandOverFlip mOverFlip = new RubberBandOverFlip();
+
+	private float mFlipDistance;
+	private int mEvent;
+
+	@Setup
+	public void setup() {
+		// sweep forwards for two thirds of a second and back for the rest,
+		// fast enough to cross every page and over flip at both ends
+		final float speed = 3.5f * VIEW_SIZE * PAGE_COUNT
+				/ TOUCH_EVENTS_PER_SECOND;
+		for (int i = 0; i < TOUCH_EVENTS_PER_SECOND; i++) {
+			final float direction = i < TOUCH_EVENTS_PER_SECOND * 2 / 3 ? 1
+					: -2;
+			mTouchDeltas[i] = direction * speed
+					* (float) Math.sin(Math.PI * i / TOUCH_EVENTS_PER_SECOND);
+		}
+		mFlipDistance = 0;
+		mEvent = 0;
+		mOverFlip.reset();
+	}
+
+	/**
+	 * The work of a single move event.
+	 */
+	@Benchmark
+	public float touchEvent() {
+		return onTouchMove();
+	}
+
+	/**
+	 * The work of a single drawn frame.
+	 */
+	@Benchmark
+	public float frame(Blackhole bh) {
+		return onFrame(bh);
+	}
+
+	/**
+	 * Picking the page to settle on and the duration of the settle animation
+	 * when a drag ends.
+	 */
+	@Benchmark
+	public int touchUp() {
+		final int velocity = (int) (mTouchDeltas[nextEvent()] * TOUCH_EVENTS_PER_SECOND);
+		final int nextPage = FlipMath.getNextPage(mFlipDistance, velocity,
+				MINIMUM_VELOCITY, PAGE_COUNT);
+		final int delta = FlipMath.getFlipDistanceForPage(nextPage)
+				- (int) mFlipDistance;
+		return FlipMath.getFlipDuration(delta,
+				MAX_SINGLE_PAGE_FLIP_ANIM_DURATION);
+	}
+
+	/**
+	 * One second of dragging, the reported time is per second of interaction
+	 * and can be compared to the time available in that second.
+	 */
+	@Benchmark
+	public void oneSecondOfDragging(Blackhole bh) {
+		for (int i = 0; i < TOUCH_EVENTS_PER_SECOND; i++) {
+			bh.consume(onTouchMove());
+			if (i % (TOUCH_EVENTS_PER_SECOND / FRAMES_PER_SECOND) == 0) {
+				bh.consume(onFrame(bh));
+			}
+		}
+	}
+
+	private float onTouchMove() {
+		mFlipDistance += FlipMath.getFlipDistanceForPixels(
+				mTouchDeltas[nextEvent()], VIEW_SIZE);
+		final int maxFlipDistance = FlipMath
+				.getFlipDistanceForPage(PAGE_COUNT - 1);
+		if (mFlipDistance < 0 || mFlipDistance > maxFlipDistance) {
+			mFlipDistance = mOverFlip.calculate(mFlipDistance, 0,
+					maxFlipDistance);
+		} else {
+			mOverFlip.reset();
+		}
+		return mFlipDistance;
+	}
+
+	private float onFrame(Blackhole bh) {
+		bh.consume(FlipMath.getPageRound(mFlipDistance));
+		return FlipMath.getDegreesFlipped(mFlipDistance);
+	}
+
+	private int nextEvent() {
+		final int event = mEvent;
+		mEvent = (mEvent + 1) % TOUCH_EVENTS_PER_SECOND;
+		return event;
+	}
+
+}
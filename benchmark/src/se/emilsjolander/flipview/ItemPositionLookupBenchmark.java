@@ -0,0 +1,119 @@
+package se.emilsjolander.flipview;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ *
+ * @author emilsjolander
+ *
+ *         Measures finding the new position of the current page after a data
+ *         set change, once by iterating over the item ids like FlipView does
+ *         for a plain adapter and once through an ItemPositionLookup backed by
+ *         a map from id to item, like the sample adapter. The current page is
+ *         a random item, so the scan covers half of the items on average.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ItemPositionLookupBenchmark {
+
+	private static final int CURRENT_PAGE_COUNT = 64;
+
+	/**
+	 * The part of an adapter the scan uses.
+	 */
+	static class Items implements ItemPositionLookup {
+
+		private final long[] mIds;
+		private final Map<Long, Integer> mPositionsById;
+
+		Items(long[] ids) {
+			mIds = ids;
+			mPositionsById = new HashMap<Long, Integer>(ids.length * 2);
+			for (int i = 0; i < ids.length; i++) {
+				mPositionsById.put(ids[i], i);
+			}
+		}
+
+		int getCount() {
+			return mIds.length;
+		}
+
+		long getItemId(int position) {
+			return mIds[position];
+		}
+
+		@Override
+		public int getPositionForItemId(long id) {
+			final Integer position = mPositionsById.get(id);
+			return position == null ? -1 : position;
+		}
+	}
+
+	@Param({ "1000", "100000", "1000000" })
+	public int itemCount;
+
+	private Items mItems;
+	// ids of the pages which are current when the data set changes
+	private final long[] mCurrentPageIds = new long[CURRENT_PAGE_COUNT];
+	private int mCurrentPage;
+
+	@Setup
+	public void setup() {
+		final Random random = new Random(0);
+		final long[] ids = new long[itemCount];
+		for (int i = 0; i < itemCount; i++) {
+			// unique, but not in order
+			ids[i] = ((long) random.nextInt() << 32) | i;
+		}
+		mItems = new Items(ids);
+		for (int i = 0; i < CURRENT_PAGE_COUNT; i++) {
+			mCurrentPageIds[i] = ids[random.nextInt(itemCount)];
+		}
+		mCurrentPage = 0;
+	}
+
+	/**
+	 * Iterating over the item ids, as FlipView does without a lookup.
+	 */
+	@Benchmark
+	public int scan() {
+		final long id = nextCurrentPageId();
+		final Items items = mItems;
+		for (int i = 0; i < items.getCount(); i++) {
+			if (id == items.getItemId(i)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	@Benchmark
+	public int lookup() {
+		return mItems.getPositionForItemId(nextCurrentPageId());
+	}
+
+	private long nextCurrentPageId() {
+		mCurrentPage = (mCurrentPage + 1) % CURRENT_PAGE_COUNT;
+		return mCurrentPageIds[mCurrentPage];
+	}
+
+}
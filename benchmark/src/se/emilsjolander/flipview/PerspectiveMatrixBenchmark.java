@@ -0,0 +1,132 @@
+package se.emilsjolander.flipview;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ *
+ * @author emilsjolander
+ *
+ *         Measures the cost of a QuantizedMatrixTable lookup, next to a java
+ *         model of the matrix math it replaces: a rotation projected from the
+ *         camera's default distance followed by the pre/post scales and
+ *         translations of FlipView.positionMatrix. android.graphics.Camera is
+ *         not available on the JVM and the model leaves out the JNI calls of
+ *         every Camera and Matrix method, so the comparison says nothing
+ *         about the saving on a device. PerspectiveMatrixDeviceBenchmark in
+ *         the library's instrumentation tests measures the real path.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PerspectiveMatrixBenchmark {
+
+	private static final int WIDTH = 1080;
+	private static final int HEIGHT = 1920;
+	// the camera sits 8 inches of 72 points in front of the canvas
+	private static final float CAMERA_DISTANCE = 8 * 72;
+	// a one page flip of 300ms at 60 frames per second
+	private static final int FRAMES_PER_FLIP = 18;
+
+	private final float[] mValues = new float[9];
+	private final float[] mTemp = new float[9];
+	private final float[] mOperand = new float[9];
+	private QuantizedMatrixTable mTable;
+	private int mFrame;
+
+	@Setup
+	public void setup() {
+		mTable = new QuantizedMatrixTable(-90, 90,
+				new QuantizedMatrixTable.MatrixFactory() {
+
+					@Override
+					public void createMatrix(float degrees, float[] values) {
+						createFlipMatrix(degrees, values);
+					}
+				});
+		mFrame = 0;
+	}
+
+	@Benchmark
+	public float perFrameMatrix() {
+		createFlipMatrix(nextAngle(), mValues);
+		return mValues[8];
+	}
+
+	@Benchmark
+	public float quantizedTable() {
+		mTable.getMatrix(nextAngle(), mValues);
+		return mValues[8];
+	}
+
+	private float nextAngle() {
+		final float degreesFlipped = 180f * mFrame / FRAMES_PER_FLIP;
+		mFrame = (mFrame + 1) % (FRAMES_PER_FLIP + 1);
+		return degreesFlipped > 90 ? degreesFlipped - 180 : degreesFlipped;
+	}
+
+	private void createFlipMatrix(float degrees, float[] m) {
+		final double radians = Math.toRadians(degrees);
+		final float sin = (float) Math.sin(radians);
+		final float cos = (float) Math.cos(radians);
+
+		// Camera.rotateX followed by Camera.getMatrix
+		set(m, 1, 0, 0, 0, cos, 0, 0, -sin / CAMERA_DISTANCE, 1);
+
+		// FlipView.positionMatrix
+		preConcat(m, 0.25f, 0, 0, 0, 0.25f, 0, 0, 0, 1);
+		postConcat(m, 4, 0, 0, 0, 4, 0, 0, 0, 1);
+		preConcat(m, 1, 0, -WIDTH / 2, 0, 1, -HEIGHT / 2, 0, 0, 1);
+		postConcat(m, 1, 0, WIDTH / 2, 0, 1, HEIGHT / 2, 0, 0, 1);
+	}
+
+	private static void set(float[] m, float a, float b, float c, float d,
+			float e, float f, float g, float h, float i) {
+		m[0] = a;
+		m[1] = b;
+		m[2] = c;
+		m[3] = d;
+		m[4] = e;
+		m[5] = f;
+		m[6] = g;
+		m[7] = h;
+		m[8] = i;
+	}
+
+	private void preConcat(float[] m, float a, float b, float c, float d,
+			float e, float f, float g, float h, float i) {
+		set(mOperand, a, b, c, d, e, f, g, h, i);
+		multiply(m, mOperand, mTemp);
+		System.arraycopy(mTemp, 0, m, 0, 9);
+	}
+
+	private void postConcat(float[] m, float a, float b, float c, float d,
+			float e, float f, float g, float h, float i) {
+		set(mOperand, a, b, c, d, e, f, g, h, i);
+		multiply(mOperand, m, mTemp);
+		System.arraycopy(mTemp, 0, m, 0, 9);
+	}
+
+	private static void multiply(float[] l, float[] r, float[] out) {
+		for (int row = 0; row < 3; row++) {
+			for (int col = 0; col < 3; col++) {
+				out[row * 3 + col] = l[row * 3] * r[col] + l[row * 3 + 1]
+						* r[3 + col] + l[row * 3 + 2] * r[6 + col];
+			}
+		}
+	}
+
+}
@@ -0,0 +1,79 @@
+package se.emilsjolander.flipview;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ *
+ * @author emilsjolander
+ *
+ *         Measures the recycler bookkeeping done each time the current page
+ *         changes: the page leaving the window is scrapped and a page entering
+ *         it is bound from a scrap.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScrapHeapBenchmark {
+
+	@Param({ "1", "3" })
+	public int viewTypeCount;
+
+	private final ScrapHeap<Object> mScraps = new ScrapHeap<Object>(
+			new ScrapHeap.OnScrapEvictedListener<Object>() {
+
+				@Override
+				public void onScrapEvicted(Object v, int viewType) {
+				}
+			});
+	private final PageUpdate mUpdate = new PageUpdate();
+
+	private int mPosition;
+
+	@Setup
+	public void setup() {
+		mScraps.setViewTypeCount(viewTypeCount);
+		for (int i = 0; i < ScrapHeap.DEFAULT_MAX_SCRAP * viewTypeCount; i++) {
+			mScraps.addScrap(new Object(), i, i % viewTypeCount);
+		}
+		mPosition = 0;
+	}
+
+	/**
+	 * Flipping forward one page.
+	 */
+	@Benchmark
+	public Object pageChange() {
+		final int leaving = mPosition;
+		final int entering = mPosition + 3;
+		mPosition++;
+		final ScrapHeap.Scrap<Object> scrap = mScraps.getScrap(entering,
+				entering % viewTypeCount);
+		final Object v = scrap == null ? new Object() : scrap.v;
+		mScraps.addScrap(v, leaving, leaving % viewTypeCount);
+		return v;
+	}
+
+	/**
+	 * An item inserted before all scraps.
+	 */
+	@Benchmark
+	public void itemInserted() {
+		mScraps.applyUpdate(mUpdate.set(PageUpdate.ADD, 0, 1, 0));
+	}
+
+}
@@ -0,0 +1,176 @@
+package se.emilsjolander.flipview;
+
+/**
+ *
+ * @author emilsjolander
+ *
+ *         The flip distance over time of settling on a page and of peaking.
+ *         Positions are computed from frame timestamps with float precision
+ *         relative to the time the animation was started at, so the result
+ *         only depends on the timestamps it is given. That makes it
+ *         independent of the display's refresh rate and of when drawing
+ *         happens, and testable with any clock. The first frame is already
+ *         one frame into the animation.
+ */
+class FlipAnimation {
+
+	interface Callback {
+
+		/**
+		 * Called before the frame is drawn, also for the last frame.
+		 *
+		 * @param flipDistance
+		 * @param frameTimeNs
+		 *            the time the frame started at, the vsync time on api 16
+		 *            and higher
+		 */
+		void onAnimationFrame(float flipDistance, long frameTimeNs);
+
+		/**
+		 * Called after the last frame of an animation which ran to its end.
+		 */
+		void onAnimationEnd();
+	}
+
+	private static final int NONE = 0;
+	private static final int SETTLE = 1;
+	private static final int PEAK = 2;
+
+	private int mMode = NONE;
+	private float mFrom;
+	private float mTo;
+	private long mDurationNs;
+	private long mStartNs;
+	// peaks are repeated back and forth, this is the number of times the peak
+	// should be played, or -1 to repeat until canceled
+	private int mRepeats;
+
+	/**
+	 * Settle from one flip distance to another, decelerating on the way.
+	 *
+	 * @param from
+	 * @param to
+	 * @param durationNs
+	 * @param startNs
+	 *            the time the animation starts at, on the clock of the frames
+	 */
+	void startSettle(float from, float to, long durationNs, long startNs) {
+		start(SETTLE, from, to, durationNs, startNs);
+		mRepeats = 1;
+	}
+
+	/**
+	 * Peak towards a flip distance and back.
+	 *
+	 * @param from
+	 * @param to
+	 * @param durationNs
+	 *            the duration of moving one way
+	 * @param once
+	 *            false to keep peaking until canceled
+	 * @param startNs
+	 *            the time the animation starts at, on the clock of the frames
+	 */
+	void startPeak(float from, float to, long durationNs, boolean once,
+			long startNs) {
+		start(PEAK, from, to, durationNs, startNs);
+		mRepeats = once ? 2 : -1;
+	}
+
+	private void start(int mode, float from, float to, long durationNs,
+			long startNs) {
+		mMode = mode;
+		mFrom = from;
+		mTo = to;
+		mDurationNs = Math.max(durationNs, 1);
+		mStartNs = startNs;
+	}
+
+	void cancel() {
+		mMode = NONE;
+	}
+
+	boolean isRunning() {
+		return mMode != NONE;
+	}
+
+	boolean isSettling() {
+		return mMode == SETTLE;
+	}
+
+	boolean isPeaking() {
+		return mMode == PEAK;
+	}
+
+	/**
+	 *
+	 * @return the flip distance a settle ends at, or a peak returns to
+	 */
+	float getFinalFlipDistance() {
+		return mMode == PEAK ? mFrom : mTo;
+	}
+
+	/**
+	 * Advance the animation to a frame and tell the callback about it.
+	 *
+	 * @param frameTimeNs
+	 *            the time the frame will be shown at
+	 * @param callback
+	 * @return true if the animation is still running after the frame and
+	 *         needs another one
+	 */
+	boolean doFrame(long frameTimeNs, Callback callback) {
+		final float flipDistance = computeFlipDistance(frameTimeNs);
+		final boolean ended = !isRunning();
+		callback.onAnimationFrame(flipDistance, frameTimeNs);
+		if (ended) {
+			callback.onAnimationEnd();
+			return false;
+		}
+		// the callback may have canceled the animation
+		return isRunning();
+	}
+
+	/**
+	 * Advance the animation to a frame. Frames before the start time are at
+	 * the start. The animation is no longer running after it has reached its
+	 * end.
+	 *
+	 * @param frameTimeNs
+	 *            the time the frame will be shown at
+	 * @return the flip distance of the frame
+	 */
+	float computeFlipDistance(long frameTimeNs) {
+		if (mMode == NONE) {
+			return getFinalFlipDistance();
+		}
+		final long elapsedNs = Math.max(frameTimeNs - mStartNs, 0);
+		long iteration = elapsedNs / mDurationNs;
+		float t = (elapsedNs % mDurationNs) / (float) mDurationNs;
+		if (mRepeats != -1 && iteration >= mRepeats) {
+			// ended, land exactly on the end of the last iteration
+			iteration = mRepeats - 1;
+			t = 1;
+			final int mode = mMode;
+			mMode = NONE;
+			return interpolate(mode, iteration, t);
+		}
+		return interpolate(mMode, iteration, t);
+	}
+
+	private float interpolate(int mode, long iteration, float t) {
+		float fraction;
+		if (mode == SETTLE) {
+			// decelerate
+			fraction = 1 - (1 - t) * (1 - t);
+		} else {
+			// accelerate and decelerate, every other iteration in reverse
+			fraction = (float) (Math.cos((t + 1) * Math.PI) / 2) + 0.5f;
+			if (iteration % 2 == 1) {
+				fraction = 1 - fraction;
+			}
+		}
+		return mFrom + (mTo - mFrom) * fraction;
+	}
+
+}
@@ -0,0 +1,131 @@
+package se.emilsjolander.flipview;
+
+/**
+ *
+ * @author emilsjolander
+ *
+ *         Works out how much of the static half a flipping page moves over is
+ *         covered by it, by projecting the page's outer edge through the
+ *         transform the flipping half is drawn with. Coordinates are along
+ *         the flip axis, y when flipping vertically and x otherwise.
+ */
+class FlipCoverage {
+
+	private int mWidth;
+	private int mHeight;
+	private boolean mIsFlippingVertically;
+
+	private boolean mIsOverNextHalf;
+	private float mCoveredEdge;
+
+	void setSize(int width, int height, boolean flippingVertically) {
+		mWidth = width;
+		mHeight = height;
+		mIsFlippingVertically = flippingVertically;
+	}
+
+	/**
+	 *
+	 * @param degreesFlipped
+	 * @param flipMatrix
+	 *            the 9 values of the matrix the flipping half is drawn with,
+	 *            in the order of android.graphics.Matrix.getValues
+	 */
+	void update(float degreesFlipped, float[] flipMatrix) {
+		final int size = getSize();
+		final int crossSize = mIsFlippingVertically ? mWidth : mHeight;
+		final float center = size / 2;
+		mIsOverNextHalf = degreesFlipped < 90;
+		mCoveredEdge = center;
+		if (degreesFlipped == 90) {
+			// seen edge on
+			return;
+		}
+
+		// the part of the static half between the fold and the projected
+		// outer edge of the page is covered by it
+		final float edge = mIsOverNextHalf ? size : 0;
+		final float startCross = project(flipMatrix, edge, 0, true);
+		final float endCross = project(flipMatrix, edge, crossSize, true);
+		final float projected = project(flipMatrix, edge, 0, false);
+		// a page narrower than the view leaves the sides of the half
+		// uncovered, count that as not covering anything
+		if (!Float.isNaN(projected) && Math.min(startCross, endCross) <= 0
+				&& Math.max(startCross, endCross) >= crossSize) {
+			if (mIsOverNextHalf) {
+				mCoveredEdge = Math.min(Math.max(projected, center), size);
+			} else {
+				mCoveredEdge = Math.min(Math.max(projected, 0), center);
+			}
+			// snap rounding errors, a page lying flat covers all of the half
+			if (Math.abs(mCoveredEdge - edge) < 0.5f) {
+				mCoveredEdge = edge;
+			}
+		}
+	}
+
+	/**
+	 *
+	 * @return true if the page flips over the next (bottom/right) half, false
+	 *         if it flips over the previous (top/left) half
+	 */
+	boolean isOverNextHalf() {
+		return mIsOverNextHalf;
+	}
+
+	/**
+	 *
+	 * @return the end of the covered part of the static half, the fold if
+	 *         nothing is covered
+	 */
+	float getCoveredEdge() {
+		return mCoveredEdge;
+	}
+
+	/**
+	 *
+	 * @return the outer edge of the static half the page flips over
+	 */
+	float getOuterEdge() {
+		return mIsOverNextHalf ? getSize() : 0;
+	}
+
+	/**
+	 *
+	 * @return true if the flipping page covers all of the static half it
+	 *         flips over
+	 */
+	boolean isStaticHalfCovered() {
+		return mCoveredEdge == getOuterEdge();
+	}
+
+	private int getSize() {
+		return mIsFlippingVertically ? mHeight : mWidth;
+	}
+
+	/**
+	 *
+	 * @param flipMatrix
+	 * @param along
+	 *            the coordinate along the flip axis
+	 * @param across
+	 *            the coordinate across the flip axis
+	 * @param returnAcross
+	 * @return one of the projected coordinates, or NaN if the point is behind
+	 *         the camera
+	 */
+	private float project(float[] flipMatrix, float along, float across,
+			boolean returnAcross) {
+		final float x = mIsFlippingVertically ? across : along;
+		final float y = mIsFlippingVertically ? along : across;
+		final float w = flipMatrix[6] * x + flipMatrix[7] * y + flipMatrix[8];
+		if (w <= 0) {
+			return Float.NaN;
+		}
+		final boolean returnX = mIsFlippingVertically == returnAcross;
+		final int row = returnX ? 0 : 3;
+		return (flipMatrix[row] * x + flipMatrix[row + 1] * y + flipMatrix[row + 2])
+				/ w;
+	}
+
+}
@@ -0,0 +1,139 @@
+package se.emilsjolander.flipview;
+
+/**
+ *
+ * @author emilsjolander
+ *
+ *         The math turning a flip distance into pages and angles. A flip
+ *         distance of FLIP_DISTANCE_PER_PAGE corresponds to flipping one page,
+ *         so page n is fully shown at a flip distance of n *
+ *         FLIP_DISTANCE_PER_PAGE.
+ */
+final class FlipMath {
+
+	static final int FLIP_DISTANCE_PER_PAGE = 180;
+
+	private FlipMath() {
+	}
+
+	/**
+	 *
+	 * @param flipDistance
+	 * @return the angle of the page being flipped, from 0 to 180 degrees
+	 */
+	static float getDegreesFlipped(float flipDistance) {
+		float localFlipDistance = flipDistance % FLIP_DISTANCE_PER_PAGE;
+
+		// fix for negative modulo. always want a positive flip degree
+		if (localFlipDistance < 0) {
+			localFlipDistance += FLIP_DISTANCE_PER_PAGE;
+		}
+
+		return (localFlipDistance / FLIP_DISTANCE_PER_PAGE) * 180;
+	}
+
+	/**
+	 *
+	 * @param page
+	 * @return the flip distance at which page is fully shown
+	 */
+	static int getFlipDistanceForPage(int page) {
+		return page * FLIP_DISTANCE_PER_PAGE;
+	}
+
+	static int getPageRound(float flipDistance) {
+		return Math.round(flipDistance / FLIP_DISTANCE_PER_PAGE);
+	}
+
+	static int getPageFloor(float flipDistance) {
+		return (int) Math.floor(flipDistance / FLIP_DISTANCE_PER_PAGE);
+	}
+
+	static int getPageCeil(float flipDistance) {
+		return (int) Math.ceil(flipDistance / FLIP_DISTANCE_PER_PAGE);
+	}
+
+	/**
+	 *
+	 * @param flipDistance
+	 * @param velocity
+	 *            the velocity of the flip in pixels per second, positive when
+	 *            flipping back
+	 * @param minimumVelocity
+	 *            the velocity below which the closest page is chosen
+	 * @param pageCount
+	 * @return the page you should "land" on
+	 */
+	static int getNextPage(float flipDistance, int velocity,
+			int minimumVelocity, int pageCount) {
+		int nextPage;
+		if (velocity > minimumVelocity) {
+			nextPage = getPageFloor(flipDistance);
+		} else if (velocity < -minimumVelocity) {
+			nextPage = getPageCeil(flipDistance);
+		} else {
+			nextPage = getPageRound(flipDistance);
+		}
+		return Math.min(Math.max(nextPage, 0), pageCount - 1);
+	}
+
+	/**
+	 * Where a fling with momentum lands, the velocity decays exponentially
+	 * with friction so it travels velocity / friction pixels in total.
+	 *
+	 * @param flipDistance
+	 * @param velocity
+	 *            the velocity of the flip in pixels per second, positive when
+	 *            flipping back
+	 * @param minimumVelocity
+	 *            the velocity below which the closest page is chosen
+	 * @param size
+	 *            the size of the view in the flip direction
+	 * @param friction
+	 *            the rate at which the velocity decays, per second
+	 * @param pageCount
+	 * @return the page you should "land" on, never closer than the page
+	 *         getNextPage returns
+	 */
+	static int getFlingPage(float flipDistance, int velocity,
+			int minimumVelocity, int size, float friction, int pageCount) {
+		final int nextPage = getNextPage(flipDistance, velocity,
+				minimumVelocity, pageCount);
+		if (Math.abs(velocity) <= minimumVelocity) {
+			return nextPage;
+		}
+		final float travel = getFlipDistanceForPixels(-velocity / friction,
+				size);
+		final int flingPage = Math.min(
+				Math.max(getPageRound(flipDistance + travel), 0),
+				pageCount - 1);
+		return velocity > 0 ? Math.min(nextPage, flingPage) : Math.max(
+				nextPage, flingPage);
+	}
+
+	/**
+	 *
+	 * @param deltaFlipDistance
+	 * @param maxSinglePageDuration
+	 *            the duration of flipping a single page, in ms
+	 * @return the duration of flipping deltaFlipDistance, in ms
+	 */
+	static int getFlipDuration(int deltaFlipDistance, int maxSinglePageDuration) {
+		float distance = Math.abs(deltaFlipDistance);
+		return (int) (maxSinglePageDuration * Math.sqrt(distance
+				/ FLIP_DISTANCE_PER_PAGE));
+	}
+
+	/**
+	 *
+	 * @param deltaPixels
+	 *            the distance moved by a touch
+	 * @param size
+	 *            the size of the view in the flip direction
+	 * @return the flip distance moved
+	 */
+	static float getFlipDistanceForPixels(float deltaPixels, int size) {
+		return deltaPixels / (size / FLIP_DISTANCE_PER_PAGE);
+	}
+
+}
@@ -0,0 +1,65 @@
+package se.emilsjolander.flipview;
+
+/**
+ *
+ * @author emilsjolander
+ *
+ *         The flip distance math of GlowOverFlipper, the flip distance
+ *         is held at the edge and the distance over flipped is handed to the
+ *         edge glows instead.
+ */
+class GlowOverFlip {
+
+	private float mTotalOverFlip;
+	private float mLastDeltaOverFlip;
+
+	float calculate(float flipDistance, float minFlipDistance,
+			float maxFlipDistance) {
+		mLastDeltaOverFlip = flipDistance
+				- (flipDistance < 0 ? minFlipDistance : maxFlipDistance);
+		mTotalOverFlip += mLastDeltaOverFlip;
+		return flipDistance < 0 ? minFlipDistance : maxFlipDistance;
+	}
+
+	/**
+	 *
+	 * @return the distance over flipped by the last call to calculate,
+	 *         negative when over flipping past the first page
+	 */
+	float getLastDeltaOverFlip() {
+		return mLastDeltaOverFlip;
+	}
+
+	void reset() {
+		mTotalOverFlip = 0;
+		mLastDeltaOverFlip = 0;
+	}
+
+	float getTotalOverFlip() {
+		return mTotalOverFlip;
+	}
+
+	/**
+	 * The glow of EdgeEffect on api 21 and higher is an arc of a circle with
+	 * a radius of 0.6 times the edge length divided by sin(30 degrees), cut
+	 * off at 30 degrees from its center. This is the height of that arc.
+	 */
+	private static final double GLOW_HEIGHT_PER_EDGE_LENGTH = 0.6 / 0.5
+			* (1 - Math.cos(Math.PI / 6));
+
+	/**
+	 * 
+	 * @param edgeLength
+	 *            the size of the view along the edge the glow is drawn at
+	 * @param size
+	 *            the size of the view away from that edge
+	 * @return how far from its edge the glow of an api 21 EdgeEffect can
+	 *         paint, at most size
+	 */
+	static int getGlowExtent(int edgeLength, int size) {
+		// one extra pixel for the anti aliased border of the arc
+		return (int) Math.min(
+				Math.ceil(edgeLength * GLOW_HEIGHT_PER_EDGE_LENGTH) + 1, size);
+	}
+
+}
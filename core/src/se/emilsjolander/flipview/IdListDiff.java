@@ -0,0 +1,238 @@
+package se.emilsjolander.flipview;
+
+import java.util.HashMap;
+
+/**
+ *
+ * @author emilsjolander
+ *
+ *         The diff algorithm of PageListDiffer, a list of granular updates
+ *         which turn an old list of stable item ids into a new one. Item ids
+ *         must be unique within each list.
+ */
+class IdListDiff {
+
+	/**
+	 * Compares the contents of items which have the same id in both lists.
+	 */
+	interface ContentComparator {
+		boolean areContentsTheSame(int oldPosition, int newPosition);
+	}
+
+	// each update is stored as type, positionStart, itemCount, toPosition
+	private static final int FIELDS_PER_UPDATE = 4;
+
+	private int[] mUpdates;
+	private int mUpdateCount;
+
+	IdListDiff() {
+		mUpdates = new int[FIELDS_PER_UPDATE * 8];
+	}
+
+	void add(int type, int positionStart, int itemCount, int toPosition) {
+		// merge with the previous update if they describe a continuous range
+		if (mUpdateCount > 0 && type != PageUpdate.MOVE) {
+			final int last = (mUpdateCount - 1) * FIELDS_PER_UPDATE;
+			if (mUpdates[last] == type) {
+				final int lastStart = mUpdates[last + 1];
+				final int lastCount = mUpdates[last + 2];
+				if (type == PageUpdate.REMOVE && positionStart + itemCount == lastStart) {
+					// removals are added back to front
+					mUpdates[last + 1] = positionStart;
+					mUpdates[last + 2] = lastCount + itemCount;
+					return;
+				}
+				if (type != PageUpdate.REMOVE
+						&& lastStart + lastCount == positionStart) {
+					mUpdates[last + 2] = lastCount + itemCount;
+					return;
+				}
+			}
+		}
+
+		if ((mUpdateCount + 1) * FIELDS_PER_UPDATE > mUpdates.length) {
+			final int[] updates = new int[mUpdates.length * 2];
+			System.arraycopy(mUpdates, 0, updates, 0, mUpdates.length);
+			mUpdates = updates;
+		}
+		final int i = mUpdateCount * FIELDS_PER_UPDATE;
+		mUpdates[i] = type;
+		mUpdates[i + 1] = positionStart;
+		mUpdates[i + 2] = itemCount;
+		mUpdates[i + 3] = toPosition;
+		mUpdateCount++;
+	}
+
+	int getUpdateCount() {
+		return mUpdateCount;
+	}
+
+	PageUpdate getUpdate(int index, PageUpdate out) {
+		final int i = index * FIELDS_PER_UPDATE;
+		return out.set(mUpdates[i], mUpdates[i + 1], mUpdates[i + 2],
+				mUpdates[i + 3]);
+	}
+
+	/**
+	 *
+	 * @param oldIds
+	 * @param newIds
+	 * @param comparator
+	 *            may be null
+	 * @return the updates turning oldIds into newIds
+	 */
+	static IdListDiff calculate(long[] oldIds, long[] newIds,
+			ContentComparator comparator) {
+		final HashMap<Long, Integer> oldPositions = indexIds(oldIds);
+		final HashMap<Long, Integer> newPositions = indexIds(newIds);
+		final IdListDiff diff = new IdListDiff();
+
+		// remove the items which are not in the new list, back to front so the
+		// positions of the remaining removals are not affected
+		final long[] working = new long[oldIds.length];
+		int size = 0;
+		for (int i = oldIds.length - 1; i >= 0; i--) {
+			if (!newPositions.containsKey(oldIds[i])) {
+				diff.add(PageUpdate.REMOVE, i, 1, 0);
+			}
+		}
+		for (int i = 0; i < oldIds.length; i++) {
+			if (newPositions.containsKey(oldIds[i])) {
+				working[size++] = oldIds[i];
+			}
+		}
+
+		// the items kept in place are the longest run of items which are
+		// already in the new order, every other item is moved
+		final int[] targets = new int[size];
+		for (int i = 0; i < size; i++) {
+			targets[i] = newPositions.get(working[i]);
+		}
+		final boolean[] inPlace = longestIncreasingSubsequence(targets);
+		final HashMap<Long, Boolean> kept = new HashMap<Long, Boolean>();
+		for (int i = 0; i < size; i++) {
+			if (inPlace[i]) {
+				kept.put(working[i], Boolean.TRUE);
+			}
+		}
+
+		// move each remaining item right after the item which precedes it in
+		// the new list, in the order of the new list. That item is either kept
+		// in place or has already been moved so it is at its final spot
+		long previous = 0;
+		boolean hasPrevious = false;
+		for (int i = 0; i < newIds.length; i++) {
+			final long id = newIds[i];
+			if (!oldPositions.containsKey(id)) {
+				continue;
+			}
+			if (!kept.containsKey(id)) {
+				final int from = indexOf(working, size, id);
+				int to = hasPrevious ? indexOf(working, size, previous) + 1 : 0;
+				if (from < to) {
+					to--;
+				}
+				if (from != to) {
+					move(working, from, to);
+					diff.add(PageUpdate.MOVE, from, 1, to);
+				}
+			}
+			previous = id;
+			hasPrevious = true;
+		}
+
+		// the kept items are now in the new order, add the new items
+		for (int i = 0; i < newIds.length; i++) {
+			if (!oldPositions.containsKey(newIds[i])) {
+				diff.add(PageUpdate.ADD, i, 1, 0);
+			}
+		}
+
+		// finally mark the items whose contents changed at their new positions
+		if (comparator != null) {
+			for (int i = 0; i < newIds.length; i++) {
+				final Integer oldPosition = oldPositions.get(newIds[i]);
+				if (oldPosition != null
+						&& !comparator.areContentsTheSame(oldPosition, i)) {
+					diff.add(PageUpdate.CHANGE, i, 1, 0);
+				}
+			}
+		}
+
+		return diff;
+	}
+
+	private static HashMap<Long, Integer> indexIds(long[] ids) {
+		final HashMap<Long, Integer> positions = new HashMap<Long, Integer>(
+				ids.length * 2);
+		for (int i = 0; i < ids.length; i++) {
+			if (positions.put(ids[i], i) != null) {
+				throw new IllegalArgumentException("Duplicate item id "
+						+ ids[i]);
+			}
+		}
+		return positions;
+	}
+
+	private static int indexOf(long[] ids, int size, long id) {
+		for (int i = 0; i < size; i++) {
+			if (ids[i] == id) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Move the id at from so that it ends up at to.
+	 */
+	private static void move(long[] ids, int from, int to) {
+		final long id = ids[from];
+		if (from < to) {
+			System.arraycopy(ids, from + 1, ids, from, to - from);
+		} else {
+			System.arraycopy(ids, to, ids, to + 1, from - to);
+		}
+		ids[to] = id;
+	}
+
+	/**
+	 *
+	 * @param values
+	 *            distinct values
+	 * @return for each value, true if it is part of a longest strictly
+	 *         increasing subsequence
+	 */
+	private static boolean[] longestIncreasingSubsequence(int[] values) {
+		final int n = values.length;
+		// tails[k] is the index of the smallest tail of an increasing
+		// subsequence of length k + 1
+		final int[] tails = new int[n];
+		final int[] predecessors = new int[n];
+		int length = 0;
+		for (int i = 0; i < n; i++) {
+			int low = 0;
+			int high = length;
+			while (low < high) {
+				final int mid = (low + high) >>> 1;
+				if (values[tails[mid]] < values[i]) {
+					low = mid + 1;
+				} else {
+					high = mid;
+				}
+			}
+			predecessors[i] = low > 0 ? tails[low - 1] : -1;
+			tails[low] = i;
+			if (low == length) {
+				length++;
+			}
+		}
+
+		final boolean[] result = new boolean[n];
+		for (int i = length > 0 ? tails[length - 1] : -1; i >= 0; i = predecessors[i]) {
+			result[i] = true;
+		}
+		return result;
+	}
+
+}
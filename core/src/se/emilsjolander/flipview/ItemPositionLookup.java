@@ -0,0 +1,24 @@
+package se.emilsjolander.flipview;
+
+/**
+ * 
+ * @author emilsjolander
+ * 
+ *         Optional interface for adapters with stable ids. When the adapter
+ *         set on a FlipView implements this, the FlipView uses it to find the
+ *         new position of the current page after a data set change instead of
+ *         iterating over every item id of the adapter.
+ */
+public interface ItemPositionLookup {
+
+	/**
+	 * 
+	 * @param id
+	 *            a stable item id, as returned by getItemId
+	 * 
+	 * @return the current position of the item with the given id, or -1 if
+	 *         there is no such item
+	 */
+	int getPositionForItemId(long id);
+
+}
@@ -0,0 +1,81 @@
+package se.emilsjolander.flipview;
+
+/**
+ *
+ * @author emilsjolander
+ *
+ *         Describes a change to a range of the adapter's items and maps the
+ *         positions from before the change to the positions after it.
+ */
+class PageUpdate {
+
+	static final int ADD = 0;
+	static final int REMOVE = 1;
+	static final int MOVE = 2;
+	static final int CHANGE = 3;
+
+	// returned as the new position of an item which was removed
+	static final int REMOVED = -1;
+
+	int type;
+	int positionStart;
+	int itemCount;
+	// only used by MOVE
+	int toPosition;
+
+	PageUpdate set(int type, int positionStart, int itemCount, int toPosition) {
+		this.type = type;
+		this.positionStart = positionStart;
+		this.itemCount = itemCount;
+		this.toPosition = toPosition;
+		return this;
+	}
+
+	/**
+	 *
+	 * @param position
+	 *            a position from before the update
+	 * @return the position after the update, or REMOVED
+	 */
+	int applyToPosition(int position) {
+		switch (type) {
+		case ADD:
+			return position >= positionStart ? position + itemCount : position;
+		case REMOVE:
+			if (position < positionStart) {
+				return position;
+			}
+			if (position < positionStart + itemCount) {
+				return REMOVED;
+			}
+			return position - itemCount;
+		case MOVE:
+			if (position == positionStart) {
+				return toPosition;
+			}
+			if (positionStart < toPosition && position > positionStart
+					&& position <= toPosition) {
+				return position - 1;
+			}
+			if (positionStart > toPosition && position >= toPosition
+					&& position < positionStart) {
+				return position + 1;
+			}
+			return position;
+		default:
+			return position;
+		}
+	}
+
+	/**
+	 *
+	 * @param position
+	 *            a position from after the update
+	 * @return true if the item at position has to be bound again
+	 */
+	boolean isChanged(int position) {
+		return type == CHANGE && position >= positionStart
+				&& position < positionStart + itemCount;
+	}
+
+}
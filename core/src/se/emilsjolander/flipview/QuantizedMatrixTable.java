@@ -0,0 +1,99 @@
+package se.emilsjolander.flipview;
+
+/**
+ *
+ * @author emilsjolander
+ *
+ *         A table of 3x3 matrices which depend only on an angle, quantized to
+ *         STEPS_PER_DEGREE steps per degree. Entries are created on first
+ *         lookup so only the angles actually drawn are paid for, and stay
+ *         valid until the table is invalidated.
+ */
+class QuantizedMatrixTable {
+
+	/**
+	 * Creates the matrix of an angle, only called on a cache miss.
+	 */
+	interface MatrixFactory {
+		/**
+		 *
+		 * @param degrees
+		 * @param values
+		 *            the 9 values of the matrix, in the order of
+		 *            android.graphics.Matrix.getValues
+		 */
+		void createMatrix(float degrees, float[] values);
+	}
+
+	static final int STEPS_PER_DEGREE = 4;
+
+	private static final int VALUES_PER_MATRIX = 9;
+
+	private final MatrixFactory mFactory;
+	private final float mMinDegrees;
+	private final float[] mValues;
+	private final boolean[] mCreated;
+	private final float[] mScratch = new float[VALUES_PER_MATRIX];
+
+	/**
+	 *
+	 * @param minDegrees
+	 *            the smallest angle looked up
+	 * @param maxDegrees
+	 *            the largest angle looked up
+	 * @param factory
+	 */
+	QuantizedMatrixTable(float minDegrees, float maxDegrees,
+			MatrixFactory factory) {
+		if (maxDegrees < minDegrees) {
+			throw new IllegalArgumentException(
+					"Can't have a maxDegrees < minDegrees");
+		}
+		mFactory = factory;
+		mMinDegrees = minDegrees;
+		final int entries = Math.round((maxDegrees - minDegrees)
+				* STEPS_PER_DEGREE) + 1;
+		mValues = new float[entries * VALUES_PER_MATRIX];
+		mCreated = new boolean[entries];
+	}
+
+	/**
+	 * Copy the matrix of the quantized step closest to degrees into out.
+	 *
+	 * @param degrees
+	 *            clamped to the range of the table
+	 * @param out
+	 *            at least 9 values
+	 */
+	void getMatrix(float degrees, float[] out) {
+		final int entry = getEntry(degrees);
+		final int offset = entry * VALUES_PER_MATRIX;
+		if (!mCreated[entry]) {
+			mFactory.createMatrix(getDegrees(entry), mScratch);
+			System.arraycopy(mScratch, 0, mValues, offset, VALUES_PER_MATRIX);
+			mCreated[entry] = true;
+		}
+		System.arraycopy(mValues, offset, out, 0, VALUES_PER_MATRIX);
+	}
+
+	/**
+	 * Forget all matrices, call when anything besides the angle that the
+	 * matrices depend on changes.
+	 */
+	void invalidate() {
+		for (int i = 0; i < mCreated.length; i++) {
+			mCreated[i] = false;
+		}
+	}
+
+	int getEntry(float degrees) {
+		final int entry = Math.round((degrees - mMinDegrees)
+				* STEPS_PER_DEGREE);
+		return Math.min(Math.max(entry, 0), mCreated.length - 1);
+	}
+
+	float getDegrees(int entry) {
+		return mMinDegrees + entry / (float) STEPS_PER_DEGREE;
+	}
+
+}
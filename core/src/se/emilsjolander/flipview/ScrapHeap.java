@@ -0,0 +1,272 @@
+package se.emilsjolander.flipview;
+
+/**
+ *
+ * @author emilsjolander
+ *
+ *         The bookkeeping of Recycler without any views attached. Scraps are
+ *         kept per view type in lists ordered from the least to the most
+ *         recently added, each list is bounded and drops its oldest scrap
+ *         when full. Holders are reused so that recycling does not allocate.
+ *
+ * @param <V>
+ *            the type of the recycled views
+ */
+class ScrapHeap<V> {
+
+	/**
+	 * Receives the views which are dropped to make room for newer ones.
+	 */
+	interface OnScrapEvictedListener<V> {
+		void onScrapEvicted(V v, int viewType);
+	}
+
+	static class Scrap<V> {
+		V v;
+		int position;
+		boolean valid;
+
+		// scraps of a view type are kept in a list ordered from the least to
+		// the most recently added, free holders are kept in a list of their
+		// own
+		Scrap<V> previous;
+		Scrap<V> next;
+	}
+
+	/** Scraps of a single view type, oldest first. */
+	static class ScrapList<V> {
+		Scrap<V> oldest;
+		Scrap<V> newest;
+		int size;
+		int maxSize;
+	}
+
+	/** The default number of scraps kept for each view type. */
+	static final int DEFAULT_MAX_SCRAP = 5;
+
+	private final OnScrapEvictedListener<V> mOnScrapEvictedListener;
+
+	private ScrapList<V>[] mScraps;
+
+	/** Holders not in use. */
+	private Scrap<V> mFreeScraps;
+
+	ScrapHeap(OnScrapEvictedListener<V> onScrapEvictedListener) {
+		mOnScrapEvictedListener = onScrapEvictedListener;
+	}
+
+	/**
+	 * Drops all scraps if the number of view types changed.
+	 *
+	 * @param viewTypeCount
+	 * @return true if the view type count changed, the capacities of all
+	 *         view types are reset to DEFAULT_MAX_SCRAP
+	 */
+	boolean setViewTypeCount(int viewTypeCount) {
+		if (viewTypeCount < 1) {
+			throw new IllegalArgumentException("Can't have a viewTypeCount < 1");
+		}
+		// do nothing if the view type count has not changed.
+		if (mScraps != null && viewTypeCount == mScraps.length) {
+			return false;
+		}
+		clear();
+		final ScrapList<V>[] scrapViews = newScrapLists(viewTypeCount);
+		for (int i = 0; i < viewTypeCount; i++) {
+			scrapViews[i] = new ScrapList<V>();
+			scrapViews[i].maxSize = DEFAULT_MAX_SCRAP;
+		}
+		mScraps = scrapViews;
+		return true;
+	}
+
+	boolean hasViewType(int viewType) {
+		return mScraps != null && viewType >= 0 && viewType < mScraps.length;
+	}
+
+	/**
+	 * Set the number of scraps kept for a view type, evicting the oldest
+	 * scraps if there are more than that.
+	 *
+	 * @param viewType
+	 *            an existing view type
+	 * @param max
+	 */
+	void setMaxScrap(int viewType, int max) {
+		final ScrapList<V> list = mScraps[viewType];
+		list.maxSize = max;
+		while (list.size > list.maxSize) {
+			evictScrap(list, viewType);
+		}
+	}
+
+	/**
+	 * @return the scrap last added for position, or else the most recently
+	 *         added scrap of viewType marked invalid, or null. The returned
+	 *         scrap may be reused by the next call to addScrap so read it
+	 *         right away.
+	 */
+	Scrap<V> getScrap(int position, int viewType) {
+		final ScrapList<V> scrapViews = mScraps[viewType];
+		if (scrapViews.size > 0) {
+			// See if we still have a view for this position.
+			for (Scrap<V> s = scrapViews.newest; s != null; s = s.previous) {
+				if (s.position == position) {
+					return releaseScrap(removeScrap(scrapViews, s));
+				}
+			}
+			final Scrap<V> result = releaseScrap(removeScrap(scrapViews,
+					scrapViews.newest));
+			result.valid = false;
+			return result;
+		}
+		return null;
+	}
+
+	/**
+	 * Wrap a view obtained elsewhere in a holder like the ones returned by
+	 * getScrap, it has to be rebound.
+	 */
+	Scrap<V> wrapInvalid(V v, int position) {
+		final Scrap<V> item = obtainScrap();
+		item.v = v;
+		item.position = position;
+		item.valid = false;
+		return releaseScrap(item);
+	}
+
+	/**
+	 *
+	 * @param scrap
+	 * @param position
+	 * @param viewType
+	 * @return false if viewType is not a view type of the heap or keeps no
+	 *         scraps, and scrap was not added
+	 */
+	boolean addScrap(V scrap, int position, int viewType) {
+		if (!hasViewType(viewType)) {
+			return false;
+		}
+		final ScrapList<V> list = mScraps[viewType];
+		if (list.maxSize == 0) {
+			return false;
+		}
+
+		final Scrap<V> item = obtainScrap();
+		item.v = scrap;
+		item.position = position;
+		item.valid = true;
+
+		// make room by dropping the least recently added scrap
+		if (list.size == list.maxSize) {
+			evictScrap(list, viewType);
+		}
+		item.previous = list.newest;
+		if (list.newest != null) {
+			list.newest.next = item;
+		} else {
+			list.oldest = item;
+		}
+		list.newest = item;
+		list.size++;
+		return true;
+	}
+
+	void invalidateScraps() {
+		for (ScrapList<V> list : mScraps) {
+			for (Scrap<V> s = list.oldest; s != null; s = s.next) {
+				s.valid = false;
+			}
+		}
+	}
+
+	/**
+	 * Move the scraps to the positions their items have after an update,
+	 * scraps of removed or changed items are invalidated.
+	 */
+	void applyUpdate(PageUpdate update) {
+		for (ScrapList<V> list : mScraps) {
+			for (Scrap<V> s = list.oldest; s != null; s = s.next) {
+				final int position = update.applyToPosition(s.position);
+				if (position == PageUpdate.REMOVED || update.isChanged(position)) {
+					s.valid = false;
+				}
+				s.position = position;
+			}
+		}
+	}
+
+	/**
+	 * Drop all scraps without evicting them, keeping the capacities
+	 */
+	void clear() {
+		if (mScraps != null) {
+			for (ScrapList<V> list : mScraps) {
+				while (list.size > 0) {
+					dropScrap(list, list.oldest);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Drop the least recently added scrap of a view type, handing it to the
+	 * listener.
+	 */
+	private void evictScrap(ScrapList<V> list, int viewType) {
+		mOnScrapEvictedListener.onScrapEvicted(list.oldest.v, viewType);
+		dropScrap(list, list.oldest);
+	}
+
+	private void dropScrap(ScrapList<V> list, Scrap<V> s) {
+		releaseScrap(removeScrap(list, s)).v = null;
+	}
+
+	/**
+	 * Get a holder from the free list, or a new one if it is empty.
+	 */
+	private Scrap<V> obtainScrap() {
+		final Scrap<V> item = mFreeScraps;
+		if (item == null) {
+			return new Scrap<V>();
+		}
+		mFreeScraps = item.next;
+		item.next = null;
+		return item;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <V> ScrapList<V>[] newScrapLists(int size) {
+		// generic arrays can't be created, the lists are all empty so the
+		// cast is safe
+		return (ScrapList<V>[]) new ScrapList<?>[size];
+	}
+
+	private static <V> Scrap<V> removeScrap(ScrapList<V> list, Scrap<V> s) {
+		if (s.previous != null) {
+			s.previous.next = s.next;
+		} else {
+			list.oldest = s.next;
+		}
+		if (s.next != null) {
+			s.next.previous = s.previous;
+		} else {
+			list.newest = s.previous;
+		}
+		s.previous = null;
+		s.next = null;
+		list.size--;
+		return s;
+	}
+
+	/**
+	 * Put a holder back into the free list. Its fields are left untouched
+	 * until it is reused.
+	 */
+	private Scrap<V> releaseScrap(Scrap<V> s) {
+		s.next = mFreeScraps;
+		mFreeScraps = s;
+		return s;
+	}
+
+}
@@ -0,0 +1,62 @@
+package se.emilsjolander.flipview;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ *
+ * @author emilsjolander
+ *
+ *         Counts the bytes allocated by the calling thread, using the
+ *         allocation counter of the HotSpot ThreadMXBean.
+ */
+final class AllocationCounter {
+
+	private final com.sun.management.ThreadMXBean mThreadMXBean;
+	private final long mThreadId;
+	// bytes allocated by reading the counter itself, subtracted from counts
+	private final long mOverhead;
+
+	private long mStart;
+
+	AllocationCounter() {
+		mThreadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory
+				.getThreadMXBean();
+		mThreadMXBean.setThreadAllocatedMemoryEnabled(true);
+		mThreadId = Thread.currentThread().getId();
+		// read a few times so the counter's own code paths are warm
+		long overhead = 0;
+		for (int i = 0; i < 10; i++) {
+			final long start = read();
+			overhead = read() - start;
+		}
+		mOverhead = overhead;
+	}
+
+	/**
+	 *
+	 * @return false if the jvm can't count allocations, tests should then be
+	 *         skipped
+	 */
+	static boolean isSupported() {
+		return ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean
+				&& ((com.sun.management.ThreadMXBean) ManagementFactory
+						.getThreadMXBean()).isThreadAllocatedMemorySupported();
+	}
+
+	void start() {
+		mStart = read();
+	}
+
+	/**
+	 *
+	 * @return the bytes allocated by this thread since start
+	 */
+	long stop() {
+		return read() - mStart - mOverhead;
+	}
+
+	private long read() {
+		return mThreadMXBean.getThreadAllocatedBytes(mThreadId);
+	}
+
+}
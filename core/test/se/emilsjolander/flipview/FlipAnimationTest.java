@@ -0,0 +1,150 @@
+package se.emilsjolander.flipview;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ *
+ * @author emilsjolander
+ *
+ *         Steps FlipAnimation through the frames of a fake clock and checks
+ *         the flip distances of the frames and when the animation ends.
+ */
+public class FlipAnimationTest {
+
+	private static final long FRAME_INTERVAL_NS = 16000000L;
+	private static final int DURATION_FRAMES = 10;
+	private static final long DURATION_NS = DURATION_FRAMES
+			* FRAME_INTERVAL_NS;
+	private static final long START_NS = 1000 * FRAME_INTERVAL_NS;
+	private static final float FROM = 100;
+	private static final float TO = 200;
+	private static final float DELTA = 0.01f;
+
+	private final FlipAnimation mAnimation = new FlipAnimation();
+	private final List<Float> mFlipDistances = new ArrayList<Float>();
+	private int mEndCount;
+	private boolean mCancelOnFrame;
+
+	private final FlipAnimation.Callback mCallback = new FlipAnimation.Callback() {
+
+		@Override
+		public void onAnimationFrame(float flipDistance, long frameTimeNs) {
+			mFlipDistances.add(flipDistance);
+			if (mCancelOnFrame) {
+				mAnimation.cancel();
+			}
+		}
+
+		@Override
+		public void onAnimationEnd() {
+			mEndCount++;
+		}
+	};
+
+	@Before
+	public void setUp() {
+		mFlipDistances.clear();
+		mEndCount = 0;
+		mCancelOnFrame = false;
+	}
+
+	/**
+	 * Run frames one interval apart, the first one an interval after the
+	 * start, for as long as the animation asks for them.
+	 *
+	 * @param maxFrames
+	 * @return the number of frames run
+	 */
+	private int runFrames(int maxFrames) {
+		int frames = 0;
+		boolean running = true;
+		while (running && frames < maxFrames) {
+			frames++;
+			running = mAnimation.doFrame(START_NS + frames * FRAME_INTERVAL_NS,
+					mCallback);
+		}
+		return frames;
+	}
+
+	private static float settleAt(float t) {
+		return FROM + (TO - FROM) * (1 - (1 - t) * (1 - t));
+	}
+
+	private static float peakAt(float t) {
+		return FROM + (TO - FROM)
+				* (float) (Math.cos((t + 1) * Math.PI) / 2 + 0.5);
+	}
+
+	@Test
+	public void settleAdvancesFromTheFirstFrame() {
+		mAnimation.startSettle(FROM, TO, DURATION_NS, START_NS);
+		assertEquals(DURATION_FRAMES, runFrames(DURATION_FRAMES * 2));
+
+		assertEquals(DURATION_FRAMES, mFlipDistances.size());
+		assertTrue(mFlipDistances.get(0) > FROM);
+		for (int i = 0; i < DURATION_FRAMES - 1; i++) {
+			final float t = (i + 1) / (float) DURATION_FRAMES;
+			assertEquals(settleAt(t), mFlipDistances.get(i), DELTA);
+		}
+		// lands exactly on the end
+		assertEquals(TO, mFlipDistances.get(DURATION_FRAMES - 1), 0);
+		assertFalse(mAnimation.isRunning());
+		assertEquals(1, mEndCount);
+	}
+
+	@Test
+	public void peakOnceGoesThereAndBack() {
+		mAnimation.startPeak(FROM, TO, DURATION_NS, true, START_NS);
+		assertEquals(DURATION_FRAMES * 2, runFrames(DURATION_FRAMES * 4));
+
+		for (int i = 0; i < DURATION_FRAMES * 2 - 1; i++) {
+			final int frame = i + 1;
+			final float t = (frame % DURATION_FRAMES)
+					/ (float) DURATION_FRAMES;
+			final float expected = frame < DURATION_FRAMES ? peakAt(t)
+					: FROM + TO - peakAt(t);
+			assertEquals(expected, mFlipDistances.get(i), DELTA);
+		}
+		assertEquals(FROM, mFlipDistances.get(DURATION_FRAMES * 2 - 1), 0);
+		assertFalse(mAnimation.isRunning());
+		assertEquals(1, mEndCount);
+	}
+
+	@Test
+	public void repeatingPeakRunsUntilCanceled() {
+		mAnimation.startPeak(FROM, TO, DURATION_NS, false, START_NS);
+		assertEquals(DURATION_FRAMES * 10, runFrames(DURATION_FRAMES * 10));
+		assertTrue(mAnimation.isPeaking());
+		assertEquals(0, mEndCount);
+
+		mAnimation.cancel();
+		assertFalse(mAnimation.isRunning());
+		assertEquals(0, mEndCount);
+	}
+
+	@Test
+	public void canceledByCallbackDoesNotEnd() {
+		mCancelOnFrame = true;
+		mAnimation.startSettle(FROM, TO, DURATION_NS, START_NS);
+		assertEquals(1, runFrames(DURATION_FRAMES));
+		assertEquals(0, mEndCount);
+	}
+
+	@Test
+	public void framesBeforeTheStartAreAtTheStart() {
+		mAnimation.startSettle(FROM, TO, DURATION_NS, START_NS);
+		assertEquals(FROM,
+				mAnimation.computeFlipDistance(START_NS - FRAME_INTERVAL_NS),
+				0);
+		assertTrue(mAnimation.isSettling());
+	}
+
+}
@@ -0,0 +1,185 @@
+package se.emilsjolander.flipview;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assume.assumeTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ *
+ * @author emilsjolander
+ *
+ *         Replays a scripted flip through 100 pages with the core classes a
+ *         FlipView runs for every touch event and frame: dragging each page
+ *         half way and letting it settle, over flipping at the last page and
+ *         peaking. Once warmed up none of it may allocate. FlipView itself
+ *         is covered by FlipViewAllocationTest of the library tests.
+ */
+public class FlipHotPathAllocationTest {
+
+	private static final int PAGE_COUNT = 100;
+	private static final int VIEW_WIDTH = 720;
+	private static final int VIEW_HEIGHT = 1080;
+	private static final int MINIMUM_VELOCITY = 50;
+	private static final int MAX_SINGLE_PAGE_FLIP_ANIM_DURATION = 300;
+	private static final long PEAK_ANIM_DURATION_NS = 600000000;
+	private static final long FRAME_INTERVAL_NS = 16666667;
+	// touch events are delivered twice as often as frames are drawn
+	private static final int TOUCH_EVENTS_PER_FRAME = 2;
+	private static final float TOUCH_MOVE_PIXELS = 60;
+	private static final int TOUCH_MOVES_PER_PAGE = 10;
+	private static final int FLING_VELOCITY = 2000;
+
+	private final FlipAnimation mAnimation = new FlipAnimation();
+	private final RubberBandOverFlip mRubberBand = new RubberBandOverFlip();
+	private final GlowOverFlip mGlow = new GlowOverFlip();
+	private final FlipCoverage mCoverage = new FlipCoverage();
+	private final float[] mMatrixValues = new float[9];
+	private final QuantizedMatrixTable mMatrices = new QuantizedMatrixTable(
+			-90, 90, new QuantizedMatrixTable.MatrixFactory() {
+
+				@Override
+				public void createMatrix(float degrees, float[] values) {
+					// a rotation about the fold seen from a camera in front
+					// of the view, close enough to what Camera produces
+					final double radians = Math.toRadians(degrees);
+					final float cos = (float) Math.cos(radians);
+					final float sin = (float) Math.sin(radians);
+					final float center = VIEW_HEIGHT / 2f;
+					values[0] = 1;
+					values[1] = 0;
+					values[2] = 0;
+					values[3] = 0;
+					values[4] = cos;
+					values[5] = center - center * cos;
+					values[6] = 0;
+					values[7] = sin / 576f;
+					values[8] = 1 - center * sin / 576f;
+				}
+			});
+
+	private AllocationCounter mCounter;
+	private float mFlipDistance;
+	private long mFrameTimeNs;
+	// keeps the results alive so the work can't be optimized away
+	private float mSink;
+
+	@Before
+	public void setUp() {
+		assumeTrue(AllocationCounter.isSupported());
+		mCounter = new AllocationCounter();
+		mCoverage.setSize(VIEW_WIDTH, VIEW_HEIGHT, true);
+	}
+
+	@Test
+	public void scriptedFlipDoesNotAllocate() {
+		// warm up, lets the jit compile the hot path the way it will run
+		for (int i = 0; i < 20; i++) {
+			flipThroughAllPages();
+		}
+
+		mCounter.start();
+		flipThroughAllPages();
+		final long allocated = mCounter.stop();
+
+		assertEquals("bytes allocated by a scripted flip", 0, allocated);
+		// the script must actually have reached the end
+		assertEquals(FlipMath.getFlipDistanceForPage(PAGE_COUNT - 1),
+				mFlipDistance, 0);
+	}
+
+	private void flipThroughAllPages() {
+		mFlipDistance = 0;
+		mFrameTimeNs = 0;
+		for (int page = 0; page < PAGE_COUNT - 1; page++) {
+			drag(TOUCH_MOVES_PER_PAGE, TOUCH_MOVE_PIXELS, mRubberBand);
+			settle(-FLING_VELOCITY);
+		}
+
+		// over flip past the last page with both over flip modes
+		drag(TOUCH_MOVES_PER_PAGE, TOUCH_MOVE_PIXELS, mRubberBand);
+		settle(0);
+		drag(TOUCH_MOVES_PER_PAGE, TOUCH_MOVE_PIXELS, mGlow);
+		settle(0);
+
+		// peak back and forth once
+		final float base = mFlipDistance;
+		mAnimation.startPeak(base, base - FlipMath.FLIP_DISTANCE_PER_PAGE / 4,
+				PEAK_ANIM_DURATION_NS, true, mFrameTimeNs);
+		animate();
+	}
+
+	/**
+	 * Move the touch, over flipping when past either end.
+	 *
+	 * @param moves
+	 * @param pixels
+	 *            moved by each event
+	 * @param overFlip
+	 *            a RubberBandOverFlip or a GlowOverFlip
+	 */
+	private void drag(int moves, float pixels, Object overFlip) {
+		final int maxFlipDistance = FlipMath
+				.getFlipDistanceForPage(PAGE_COUNT - 1);
+		for (int i = 0; i < moves; i++) {
+			mFlipDistance += FlipMath.getFlipDistanceForPixels(pixels,
+					VIEW_HEIGHT);
+			if (mFlipDistance < 0 || mFlipDistance > maxFlipDistance) {
+				if (overFlip == mRubberBand) {
+					mFlipDistance = mRubberBand.calculate(mFlipDistance, 0,
+							maxFlipDistance);
+					mSink += mRubberBand.getTotalOverFlip();
+				} else {
+					mFlipDistance = mGlow.calculate(mFlipDistance, 0,
+							maxFlipDistance);
+					mSink += mGlow.getLastDeltaOverFlip();
+				}
+			}
+			if (i % TOUCH_EVENTS_PER_FRAME == 0) {
+				frame();
+			}
+		}
+	}
+
+	/**
+	 * Release the touch and let the flip settle on a page.
+	 *
+	 * @param velocity
+	 */
+	private void settle(int velocity) {
+		mRubberBand.reset();
+		mGlow.reset();
+		final int page = FlipMath.getNextPage(mFlipDistance, velocity,
+				MINIMUM_VELOCITY, PAGE_COUNT);
+		final int end = FlipMath.getFlipDistanceForPage(page);
+		final int duration = FlipMath.getFlipDuration(
+				(int) (end - mFlipDistance),
+				MAX_SINGLE_PAGE_FLIP_ANIM_DURATION);
+		mAnimation.startSettle(mFlipDistance, end, duration * 1000000L,
+				mFrameTimeNs);
+		animate();
+	}
+
+	private void animate() {
+		while (mAnimation.isRunning()) {
+			mFrameTimeNs += FRAME_INTERVAL_NS;
+			mFlipDistance = mAnimation.computeFlipDistance(mFrameTimeNs);
+			frame();
+		}
+	}
+
+	/**
+	 * The math of drawing a frame.
+	 */
+	private void frame() {
+		final float degreesFlipped = FlipMath.getDegreesFlipped(mFlipDistance);
+		final float cameraDegrees = degreesFlipped > 90 ? degreesFlipped - 180
+				: degreesFlipped;
+		mMatrices.getMatrix(cameraDegrees, mMatrixValues);
+		mCoverage.update(degreesFlipped, mMatrixValues);
+		mSink += FlipMath.getPageRound(mFlipDistance)
+				+ mCoverage.getCoveredEdge();
+	}
+
+}
@@ -0,0 +1,212 @@
+package se.emilsjolander.flipview;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ *
+ * @author emilsjolander
+ *
+ *         Diffs random lists of ids and applies the updates to the old list,
+ *         the way a FlipView applies them to its pages, checking that the
+ *         result is the new list and that every kept item is followed to its
+ *         new position.
+ */
+public class IdListDiffTest {
+
+	private static final int ITERATIONS = 2000;
+	private static final int MAX_SIZE = 40;
+
+	private final PageUpdate mUpdate = new PageUpdate();
+
+	@Test
+	public void randomListsAreDiffedCorrectly() {
+		final Random random = new Random(0);
+		for (int i = 0; i < ITERATIONS; i++) {
+			final long[] oldIds = randomIds(random, random.nextInt(MAX_SIZE));
+			final long[] newIds = mutate(random, oldIds);
+			final HashSet<Long> changedIds = new HashSet<Long>();
+			for (long id : newIds) {
+				if (random.nextInt(4) == 0) {
+					changedIds.add(id);
+				}
+			}
+			check(oldIds, newIds, changedIds);
+		}
+	}
+
+	@Test
+	public void emptyAndEqualLists() {
+		check(new long[0], new long[0], new HashSet<Long>());
+		check(new long[0], new long[] { 1, 2 }, new HashSet<Long>());
+		check(new long[] { 1, 2 }, new long[0], new HashSet<Long>());
+
+		final long[] ids = new long[] { 3, 1, 2 };
+		assertEquals(0, IdListDiff.calculate(ids, ids, null).getUpdateCount());
+	}
+
+	@Test
+	public void reversedList() {
+		check(new long[] { 1, 2, 3, 4, 5 }, new long[] { 5, 4, 3, 2, 1 },
+				new HashSet<Long>());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void duplicateIdsAreRejected() {
+		IdListDiff.calculate(new long[] { 1, 1 }, new long[0], null);
+	}
+
+	private void check(final long[] oldIds, final long[] newIds,
+			final HashSet<Long> changedIds) {
+		final IdListDiff diff = IdListDiff.calculate(oldIds, newIds,
+				new IdListDiff.ContentComparator() {
+
+					@Override
+					public boolean areContentsTheSame(int oldPosition,
+							int newPosition) {
+						assertEquals(oldIds[oldPosition], newIds[newPosition]);
+						return !changedIds.contains(newIds[newPosition]);
+					}
+				});
+
+		final ArrayList<Long> ids = new ArrayList<Long>();
+		for (long id : oldIds) {
+			ids.add(id);
+		}
+		// where each old item is after the updates applied so far
+		final int[] positions = new int[oldIds.length];
+		for (int i = 0; i < positions.length; i++) {
+			positions[i] = i;
+		}
+		final HashSet<Long> changed = new HashSet<Long>();
+
+		for (int i = 0; i < diff.getUpdateCount(); i++) {
+			final PageUpdate update = diff.getUpdate(i, mUpdate);
+			apply(update, ids, newIds, changed);
+			for (int j = 0; j < positions.length; j++) {
+				if (positions[j] != PageUpdate.REMOVED) {
+					positions[j] = update.applyToPosition(positions[j]);
+				}
+			}
+		}
+
+		assertArrayEquals(newIds, toArray(ids));
+		for (int i = 0; i < oldIds.length; i++) {
+			final int expected = indexOf(newIds, oldIds[i]);
+			assertEquals("position of id " + oldIds[i],
+					expected == -1 ? PageUpdate.REMOVED : expected,
+					positions[i]);
+		}
+		final HashSet<Long> expectedChanged = new HashSet<Long>(changedIds);
+		for (long id : oldIds) {
+			if (indexOf(newIds, id) == -1) {
+				expectedChanged.remove(id);
+			}
+		}
+		for (long id : newIds) {
+			if (indexOf(oldIds, id) == -1) {
+				expectedChanged.remove(id);
+			}
+		}
+		assertEquals(expectedChanged, changed);
+	}
+
+	/**
+	 * Apply an update to a list of ids, added items take their ids from the
+	 * new list as they are added at their final positions.
+	 */
+	private static void apply(PageUpdate update, ArrayList<Long> ids,
+			long[] newIds, HashSet<Long> changed) {
+		switch (update.type) {
+		case PageUpdate.ADD:
+			for (int i = 0; i < update.itemCount; i++) {
+				ids.add(update.positionStart + i, newIds[update.positionStart
+						+ i]);
+			}
+			break;
+		case PageUpdate.REMOVE:
+			for (int i = 0; i < update.itemCount; i++) {
+				ids.remove(update.positionStart);
+			}
+			break;
+		case PageUpdate.MOVE:
+			assertEquals(1, update.itemCount);
+			ids.add(update.toPosition, ids.remove(update.positionStart));
+			break;
+		case PageUpdate.CHANGE:
+			for (int i = 0; i < update.itemCount; i++) {
+				final long id = ids.get(update.positionStart + i);
+				assertTrue("changed twice " + id, changed.add(id));
+			}
+			break;
+		default:
+			throw new AssertionError("Unknown update type " + update.type);
+		}
+	}
+
+	private static long[] randomIds(Random random, int size) {
+		final HashSet<Long> used = new HashSet<Long>();
+		final long[] ids = new long[size];
+		for (int i = 0; i < size; i++) {
+			long id;
+			do {
+				id = random.nextInt(MAX_SIZE * 4);
+			} while (!used.add(id));
+			ids[i] = id;
+		}
+		return ids;
+	}
+
+	/**
+	 * Remove, add and move some of the ids. New ids are negative so they are
+	 * never in the old list.
+	 */
+	private static long[] mutate(Random random, long[] oldIds) {
+		final ArrayList<Long> ids = new ArrayList<Long>();
+		for (long id : oldIds) {
+			if (random.nextInt(4) != 0) {
+				ids.add(id);
+			}
+		}
+		final int addCount = random.nextInt(MAX_SIZE / 4 + 1);
+		for (int i = 0; i < addCount; i++) {
+			ids.add(random.nextInt(ids.size() + 1), (long) -(i + 1));
+		}
+		if (random.nextBoolean()) {
+			Collections.shuffle(ids, random);
+		} else {
+			final int moveCount = random.nextInt(4);
+			for (int i = 0; i < moveCount && !ids.isEmpty(); i++) {
+				ids.add(random.nextInt(ids.size()),
+						ids.remove(random.nextInt(ids.size())));
+			}
+		}
+		return toArray(ids);
+	}
+
+	private static long[] toArray(ArrayList<Long> ids) {
+		final long[] result = new long[ids.size()];
+		for (int i = 0; i < result.length; i++) {
+			result[i] = ids.get(i);
+		}
+		return result;
+	}
+
+	private static int indexOf(long[] ids, long id) {
+		for (int i = 0; i < ids.length; i++) {
+			if (ids[i] == id) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+}
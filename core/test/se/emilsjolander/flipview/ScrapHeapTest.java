@@ -0,0 +1,185 @@
+package se.emilsjolander.flipview;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import java.util.IdentityHashMap;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ *
+ * @author emilsjolander
+ *
+ *         Recycles views the way a FlipView flipping through its pages does
+ *         and checks that once every holder the heap needs exists, recycling
+ *         neither creates holders nor allocates anything else.
+ */
+public class ScrapHeapTest {
+
+	private static final int VIEW_TYPE_COUNT = 2;
+	private static final int PAGE_COUNT = 100;
+	// the pages kept bound on each side of the current page
+	private static final int OFFSCREEN_PAGE_LIMIT = 2;
+
+	private final PageUpdate mUpdate = new PageUpdate();
+	private final Object[] mViews = new Object[PAGE_COUNT];
+
+	private ScrapHeap<Object> mScrapHeap;
+	private AllocationCounter mCounter;
+	private int mEvictedCount;
+
+	// the holders handed out so far
+	private final IdentityHashMap<ScrapHeap.Scrap<Object>, Boolean> mHolders = new IdentityHashMap<ScrapHeap.Scrap<Object>, Boolean>();
+	private boolean mRecordHolders = true;
+
+	@Before
+	public void setUp() {
+		mScrapHeap = new ScrapHeap<Object>(
+				new ScrapHeap.OnScrapEvictedListener<Object>() {
+
+					@Override
+					public void onScrapEvicted(Object v, int viewType) {
+						mEvictedCount++;
+					}
+				});
+		mScrapHeap.setViewTypeCount(VIEW_TYPE_COUNT);
+		for (int i = 0; i < PAGE_COUNT; i++) {
+			mViews[i] = new Object();
+		}
+	}
+
+	@Test
+	public void steadyStateDoesNotCreateHolders() {
+		flipForwardAndBack();
+		final int holderCount = mHolders.size();
+
+		mRecordHolders = false;
+		for (int i = 0; i < 10; i++) {
+			flipForwardAndBack();
+		}
+		assertEquals(holderCount, mHolders.size());
+	}
+
+	@Test
+	public void steadyStateDoesNotAllocate() {
+		assumeTrue(AllocationCounter.isSupported());
+		mCounter = new AllocationCounter();
+
+		// warm up, lets the jit compile the hot path the way it will run
+		for (int i = 0; i < 200; i++) {
+			flipForwardAndBack();
+		}
+
+		mCounter.start();
+		flipForwardAndBack();
+		final long allocated = mCounter.stop();
+
+		assertEquals("bytes allocated by recycling", 0, allocated);
+	}
+
+	@Test
+	public void getScrapPrefersSamePosition() {
+		mScrapHeap.addScrap(mViews[0], 0, 0);
+		mScrapHeap.addScrap(mViews[1], 1, 0);
+		mScrapHeap.addScrap(mViews[2], 2, 0);
+
+		final ScrapHeap.Scrap<Object> scrap = mScrapHeap.getScrap(1, 0);
+		assertTrue(scrap.valid);
+		assertTrue(scrap.v == mViews[1]);
+
+		final ScrapHeap.Scrap<Object> other = mScrapHeap.getScrap(7, 0);
+		assertTrue(!other.valid);
+		assertTrue(other.v == mViews[2]);
+	}
+
+	@Test
+	public void addScrapEvictsOldest() {
+		mScrapHeap.setMaxScrap(0, 2);
+		mScrapHeap.addScrap(mViews[0], 0, 0);
+		mScrapHeap.addScrap(mViews[1], 1, 0);
+		mScrapHeap.addScrap(mViews[2], 2, 0);
+
+		assertEquals(1, mEvictedCount);
+		assertTrue(mScrapHeap.getScrap(0, 0).v == mViews[2]);
+	}
+
+	@Test
+	public void addScrapDropsUnknownViewTypes() {
+		// Adapter.IGNORE_ITEM_VIEW_TYPE and a type beyond the view type count
+		assertTrue(!mScrapHeap.addScrap(mViews[0], 0, -1));
+		assertTrue(!mScrapHeap.addScrap(mViews[1], 1, VIEW_TYPE_COUNT));
+
+		for (int viewType = 0; viewType < VIEW_TYPE_COUNT; viewType++) {
+			assertTrue(mScrapHeap.getScrap(0, viewType) == null);
+		}
+		assertEquals(0, mEvictedCount);
+	}
+
+	@Test
+	public void applyUpdateMovesAndInvalidatesScraps() {
+		mScrapHeap.addScrap(mViews[3], 3, 0);
+		mScrapHeap.addScrap(mViews[5], 5, 0);
+		mScrapHeap.applyUpdate(mUpdate.set(PageUpdate.ADD, 0, 2, 0));
+
+		ScrapHeap.Scrap<Object> scrap = mScrapHeap.getScrap(5, 0);
+		assertTrue(scrap.valid);
+		assertTrue(scrap.v == mViews[3]);
+
+		mScrapHeap.applyUpdate(mUpdate.set(PageUpdate.CHANGE, 7, 1, 0));
+		scrap = mScrapHeap.getScrap(7, 0);
+		assertTrue(!scrap.valid);
+		assertTrue(scrap.v == mViews[5]);
+	}
+
+	/**
+	 * Flip through all pages and back, recycling the page leaving the bound
+	 * window and binding the page entering it. Halfway an item is inserted,
+	 * changed and removed again.
+	 */
+	private void flipForwardAndBack() {
+		for (int page = 0; page < PAGE_COUNT - 1; page++) {
+			flip(page, page + 1);
+			if (page == PAGE_COUNT / 2) {
+				mScrapHeap.applyUpdate(mUpdate.set(PageUpdate.ADD, page, 1, 0));
+				mScrapHeap.applyUpdate(mUpdate.set(PageUpdate.CHANGE, page, 1,
+						0));
+				mScrapHeap.applyUpdate(mUpdate.set(PageUpdate.REMOVE, page, 1,
+						0));
+			}
+		}
+		for (int page = PAGE_COUNT - 1; page > 0; page--) {
+			flip(page, page - 1);
+		}
+	}
+
+	private void flip(int from, int to) {
+		final int direction = to - from;
+		final int leaving = from - direction * OFFSCREEN_PAGE_LIMIT;
+		final int entering = to + direction * OFFSCREEN_PAGE_LIMIT;
+		if (leaving >= 0 && leaving < PAGE_COUNT) {
+			mScrapHeap.addScrap(mViews[leaving], leaving, viewTypeOf(leaving));
+		}
+		if (entering >= 0 && entering < PAGE_COUNT) {
+			final int viewType = viewTypeOf(entering);
+			ScrapHeap.Scrap<Object> scrap = mScrapHeap.getScrap(entering,
+					viewType);
+			if (scrap == null) {
+				scrap = mScrapHeap.wrapInvalid(mViews[entering], entering);
+			}
+			if (mRecordHolders) {
+				mHolders.put(scrap, Boolean.TRUE);
+			} else {
+				assertTrue("holder created in steady state",
+						mHolders.containsKey(scrap));
+			}
+		}
+	}
+
+	private static int viewTypeOf(int position) {
+		return position % VIEW_TYPE_COUNT;
+	}
+
+}
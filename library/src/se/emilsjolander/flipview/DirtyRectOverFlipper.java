@@ -0,0 +1,24 @@
+package se.emilsjolander.flipview;
+
+import android.graphics.Rect;
+
+/**
+ * 
+ * @author emilsjolander
+ * 
+ *         Optional interface for over flippers which only draw into part of
+ *         the view. While no flip is in progress the FlipView then redraws
+ *         only that part for each frame of the over flip effect, the whole
+ *         view is redrawn for over flippers which do not implement this.
+ */
+public interface DirtyRectOverFlipper extends OverFlipper {
+
+	/**
+	 * 
+	 * @param outRect
+	 *            set to the area which the next call to draw will paint into,
+	 *            in the coordinates of the flipview. Empty if nothing is drawn.
+	 */
+	void getDirtyRect(Rect outRect);
+
+}
@@ -0,0 +1,152 @@
+package se.emilsjolander.flipview;
+
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.support.v4.view.ViewCompat;
+import android.view.Choreographer;
+import android.view.View;
+
+/**
+ *
+ * @author emilsjolander
+ *
+ *         Drives a FlipAnimation from the vsync timestamps of Choreographer
+ *         frame callbacks, so the flip distance of a frame matches the time
+ *         it is shown at. Devices below api 16 fall back to animation posts
+ *         timed with System.nanoTime.
+ */
+class FlipAnimator {
+
+	private final View mView;
+	private final FlipAnimation.Callback mCallback;
+	private final FlipAnimation mAnimation = new FlipAnimation();
+
+	private final Object mVsyncCallback;
+	private final Runnable mFallbackCallback = new Runnable() {
+
+		@Override
+		public void run() {
+			doFrame(System.nanoTime());
+		}
+	};
+
+	private boolean mFramePosted;
+
+	FlipAnimator(View view, FlipAnimation.Callback callback) {
+		mView = view;
+		mCallback = callback;
+		mVsyncCallback = Build.VERSION.SDK_INT >= 16 ? new VsyncCallback()
+				: null;
+	}
+
+	@TargetApi(Build.VERSION_CODES.JELLY_BEAN)
+	private class VsyncCallback implements Choreographer.FrameCallback {
+
+		@Override
+		public void doFrame(long frameTimeNanos) {
+			FlipAnimator.this.doFrame(frameTimeNanos);
+		}
+	}
+
+	/**
+	 * Settle starting now, so the first frame is already one frame in. Vsync
+	 * times are on the System.nanoTime clock as well.
+	 */
+	void startSettle(float from, float to, long durationNs) {
+		mAnimation.startSettle(from, to, durationNs, System.nanoTime());
+		postFrame();
+	}
+
+	void startPeak(float from, float to, long durationNs, boolean once) {
+		mAnimation.startPeak(from, to, durationNs, once, System.nanoTime());
+		postFrame();
+	}
+
+	/**
+	 * Stop the animation where it is, without calling onAnimationEnd.
+	 */
+	void cancel() {
+		mAnimation.cancel();
+		removeFrame();
+	}
+
+	boolean isSettling() {
+		return mAnimation.isSettling();
+	}
+
+	boolean isPeaking() {
+		return mAnimation.isPeaking();
+	}
+
+	float getFinalFlipDistance() {
+		return mAnimation.getFinalFlipDistance();
+	}
+
+	/**
+	 * Stop requesting frames while the view is not attached, the animation
+	 * catches up with the time passed once resumed.
+	 */
+	void pause() {
+		removeFrame();
+	}
+
+	void resume() {
+		if (mAnimation.isRunning()) {
+			postFrame();
+		}
+	}
+
+	private void doFrame(long frameTimeNs) {
+		mFramePosted = false;
+		if (!mAnimation.isRunning()) {
+			return;
+		}
+		if (mAnimation.doFrame(frameTimeNs, mCallback)) {
+			postFrame();
+		}
+	}
+
+	/**
+	 * Must only be called from a callback posted with
+	 * ViewCompat.postOnAnimation while the view is attached.
+	 *
+	 * @return the time the frame being produced started at, the vsync time on
+	 *         api 16 and higher
+	 */
+	@TargetApi(Build.VERSION_CODES.JELLY_BEAN)
+	static long getAnimationFrameTime() {
+		if (Build.VERSION.SDK_INT >= 16) {
+			return Choreographer.getInstance().getFrameTimeNanos();
+		}
+		return System.nanoTime();
+	}
+
+	@TargetApi(Build.VERSION_CODES.JELLY_BEAN)
+	private void postFrame() {
+		if (mFramePosted) {
+			return;
+		}
+		mFramePosted = true;
+		if (mVsyncCallback != null) {
+			Choreographer.getInstance().postFrameCallback(
+					(Choreographer.FrameCallback) mVsyncCallback);
+		} else {
+			ViewCompat.postOnAnimation(mView, mFallbackCallback);
+		}
+	}
+
+	@TargetApi(Build.VERSION_CODES.JELLY_BEAN)
+	private void removeFrame() {
+		if (!mFramePosted) {
+			return;
+		}
+		mFramePosted = false;
+		if (mVsyncCallback != null) {
+			Choreographer.getInstance().removeFrameCallback(
+					(Choreographer.FrameCallback) mVsyncCallback);
+		} else {
+			mView.removeCallbacks(mFallbackCallback);
+		}
+	}
+
+}
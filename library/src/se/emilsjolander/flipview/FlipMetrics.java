@@ -0,0 +1,298 @@
+package se.emilsjolander.flipview;
+
+/**
+ *
+ * @author emilsjolander
+ *
+ *         Performance metrics of a FlipView aggregated over a batch of frames,
+ *         delivered to a {@link FlipView.OnFrameMetricsListener}. The same
+ *         instance is reused for later batches so only read it from within the
+ *         listener callback.
+ */
+public class FlipMetrics {
+
+	/**
+	 * Counts of durations in buckets of increasing size.
+	 */
+	public static class Histogram {
+
+		// upper bounds of the buckets, the last bucket has no upper bound
+		private static final long[] BUCKET_BOUNDS_NS = { 500000, 1000000,
+				2000000, 4000000, 8000000, 12000000, 16000000, 24000000,
+				32000000, 50000000, 100000000 };
+
+		private final int[] mCounts = new int[BUCKET_BOUNDS_NS.length + 1];
+		private int mTotalCount;
+		private long mTotalNs;
+		private long mMaxNs;
+
+		void record(long durationNs) {
+			int bucket = 0;
+			while (bucket < BUCKET_BOUNDS_NS.length
+					&& durationNs >= BUCKET_BOUNDS_NS[bucket]) {
+				bucket++;
+			}
+			mCounts[bucket]++;
+			mTotalCount++;
+			mTotalNs += durationNs;
+			if (durationNs > mMaxNs) {
+				mMaxNs = durationNs;
+			}
+		}
+
+		void reset() {
+			for (int i = 0; i < mCounts.length; i++) {
+				mCounts[i] = 0;
+			}
+			mTotalCount = 0;
+			mTotalNs = 0;
+			mMaxNs = 0;
+		}
+
+		void copyFrom(Histogram other) {
+			System.arraycopy(other.mCounts, 0, mCounts, 0, mCounts.length);
+			mTotalCount = other.mTotalCount;
+			mTotalNs = other.mTotalNs;
+			mMaxNs = other.mMaxNs;
+		}
+
+		public int getBucketCount() {
+			return mCounts.length;
+		}
+
+		/**
+		 *
+		 * @param bucket
+		 * @return the exclusive upper bound of the bucket in nanoseconds,
+		 *         Long.MAX_VALUE for the last bucket
+		 */
+		public long getBucketUpperBoundNs(int bucket) {
+			return bucket < BUCKET_BOUNDS_NS.length ? BUCKET_BOUNDS_NS[bucket]
+					: Long.MAX_VALUE;
+		}
+
+		public int getCount(int bucket) {
+			return mCounts[bucket];
+		}
+
+		public int getTotalCount() {
+			return mTotalCount;
+		}
+
+		public long getTotalNs() {
+			return mTotalNs;
+		}
+
+		public long getMaxNs() {
+			return mMaxNs;
+		}
+
+		/**
+		 *
+		 * @param percentile
+		 *            between 0 and 100
+		 * @return the upper bound of the bucket holding the given percentile,
+		 *         or 0 if nothing has been recorded
+		 */
+		public long getPercentileNs(float percentile) {
+			final float target = mTotalCount * percentile / 100f;
+			int count = 0;
+			for (int i = 0; i < mCounts.length; i++) {
+				count += mCounts[i];
+				if (count > 0 && count >= target) {
+					return Math.min(getBucketUpperBoundNs(i), mMaxNs);
+				}
+			}
+			return 0;
+		}
+	}
+
+	private final Histogram mDrawTimes = new Histogram();
+	private final Histogram mNewViewTimes = new Histogram();
+	private final Histogram mConvertViewTimes = new Histogram();
+
+	private int mFrameCount;
+	private int mFramesOverBudget;
+	private int mScrapHits;
+	private int mScrapMisses;
+	private int mLayerBuilds;
+	private long mOverlayPixels;
+	private int mPageDraws;
+
+	// adapter time spent outside of drawing since the last frame
+	private long mPendingBindNs;
+	private boolean mIsDrawing;
+
+	void onDrawStarted() {
+		mIsDrawing = true;
+	}
+
+	/**
+	 *
+	 * @param drawNs
+	 *            the time spent in dispatchDraw
+	 * @param budgetNs
+	 *            the time a frame may take
+	 */
+	void onDrawFinished(long drawNs, long budgetNs) {
+		mIsDrawing = false;
+		mDrawTimes.record(drawNs);
+		mFrameCount++;
+		if (drawNs + mPendingBindNs > budgetNs) {
+			mFramesOverBudget++;
+		}
+		mPendingBindNs = 0;
+	}
+
+	void recordNewView(long durationNs) {
+		mNewViewTimes.record(durationNs);
+		onBind(durationNs);
+	}
+
+	void recordConvertView(long durationNs) {
+		mConvertViewTimes.record(durationNs);
+		onBind(durationNs);
+	}
+
+	private void onBind(long durationNs) {
+		// binding while drawing is already part of the draw time
+		if (!mIsDrawing) {
+			mPendingBindNs += durationNs;
+		}
+	}
+
+	void recordScrapHit() {
+		mScrapHits++;
+	}
+
+	void recordScrapMiss() {
+		mScrapMisses++;
+	}
+
+	void recordLayerBuild() {
+		mLayerBuilds++;
+	}
+
+	void recordOverlayPixels(long pixels) {
+		mOverlayPixels += pixels;
+	}
+
+	void recordPageDraw() {
+		mPageDraws++;
+	}
+
+	void reset() {
+		mDrawTimes.reset();
+		mNewViewTimes.reset();
+		mConvertViewTimes.reset();
+		mFrameCount = 0;
+		mFramesOverBudget = 0;
+		mScrapHits = 0;
+		mScrapMisses = 0;
+		mLayerBuilds = 0;
+		mOverlayPixels = 0;
+		mPageDraws = 0;
+	}
+
+	/**
+	 * Copy the counts of a finished batch, leaving the in progress frame state
+	 * behind.
+	 */
+	void copyFrom(FlipMetrics other) {
+		reset();
+		mDrawTimes.copyFrom(other.mDrawTimes);
+		mNewViewTimes.copyFrom(other.mNewViewTimes);
+		mConvertViewTimes.copyFrom(other.mConvertViewTimes);
+		mFrameCount = other.mFrameCount;
+		mFramesOverBudget = other.mFramesOverBudget;
+		mScrapHits = other.mScrapHits;
+		mScrapMisses = other.mScrapMisses;
+		mLayerBuilds = other.mLayerBuilds;
+		mOverlayPixels = other.mOverlayPixels;
+		mPageDraws = other.mPageDraws;
+	}
+
+	/**
+	 *
+	 * @return time spent in dispatchDraw per frame
+	 */
+	public Histogram getDrawTimes() {
+		return mDrawTimes;
+	}
+
+	/**
+	 *
+	 * @return time spent in the adapter's getView when no convert view was
+	 *         available
+	 */
+	public Histogram getNewViewTimes() {
+		return mNewViewTimes;
+	}
+
+	/**
+	 *
+	 * @return time spent in the adapter's getView when rebinding a convert
+	 *         view
+	 */
+	public Histogram getConvertViewTimes() {
+		return mConvertViewTimes;
+	}
+
+	public int getFrameCount() {
+		return mFrameCount;
+	}
+
+	/**
+	 *
+	 * @return the number of frames where drawing and binding took longer than
+	 *         the display's frame interval
+	 */
+	public int getFramesOverBudget() {
+		return mFramesOverBudget;
+	}
+
+	/**
+	 *
+	 * @return the number of times the recycler had a view for a page
+	 */
+	public int getScrapHits() {
+		return mScrapHits;
+	}
+
+	/**
+	 *
+	 * @return the number of times the recycler had no view for a page
+	 */
+	public int getScrapMisses() {
+		return mScrapMisses;
+	}
+
+	/**
+	 *
+	 * @return the number of hardware layers which had to be built
+	 */
+	public int getLayerBuilds() {
+		return mLayerBuilds;
+	}
+
+	/**
+	 *
+	 * @return the number of pixels filled by shadows, shades and shines on
+	 *         top of the pages, divide by the frame count for the fill per
+	 *         frame
+	 */
+	public long getOverlayPixelsFilled() {
+		return mOverlayPixels;
+	}
+
+	/**
+	 *
+	 * @return the number of times a page was drawn as part of a flip, from
+	 *         its view tree or its snapshot. Halves hidden by the flipping page
+	 *         are not drawn.
+	 */
+	public int getPageDraws() {
+		return mPageDraws;
+	}
+
+}
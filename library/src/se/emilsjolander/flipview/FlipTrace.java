@@ -0,0 +1,127 @@
+package se.emilsjolander.flipview;
+
+import java.lang.reflect.Method;
+
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.os.Trace;
+
+/**
+ *
+ * @author emilsjolander
+ *
+ *         Emits systrace sections and counters for the phases of a FlipView
+ *         while tracing is enabled. Sections are available on api 18 and
+ *         higher, counters on api 29 and higher. Trace.setCounter is newer
+ *         than the sdk this library is built against and is looked up
+ *         reflectively the first time tracing is enabled.
+ */
+final class FlipTrace {
+
+	static final String SET_FLIP_DISTANCE = "FlipView#setFlipDistance";
+	static final String FILL_PAGE = "FlipView#fillPageForIndex";
+	static final String GET_VIEW = "FlipView#getView";
+	static final String RECYCLE_ACTIVE_VIEWS = "FlipView#recycleActiveViews";
+	static final String DRAW_PREVIOUS_HALF = "FlipView#drawPreviousHalf";
+	static final String DRAW_NEXT_HALF = "FlipView#drawNextHalf";
+	static final String DRAW_FLIPPING_HALF = "FlipView#drawFlippingHalf";
+	static final String DRAW_OVER_FLIP = "FlipView#drawOverFlip";
+	static final String DATA_SET_CHANGED = "FlipView#dataSetChanged";
+	static final String DATA_SET_INVALIDATED = "FlipView#dataSetInvalidated";
+	static final String APPLY_PAGE_UPDATES = "FlipView#applyPageUpdates";
+
+	static final String COUNTER_FLIP_DISTANCE = "FlipView flipDistance";
+	static final String COUNTER_CURRENT_PAGE = "FlipView currentPage";
+
+	private static boolean sEnabled;
+	private static boolean sResolved;
+	private static Method sSetCounter;
+	// reused for every counter, so setting one allocates no argument array
+	private static final Object[] sCounterArgs = new Object[2];
+	// counter values boxed before, stored at their value modulo the size.
+	// Any run of consecutive values of this size, such as the flip distances
+	// of flipping back and forth around a page, is boxed only once
+	private static final int BOXED_VALUE_CACHE_SIZE = 512;
+	private static Long[] sBoxedValues;
+
+	// sections begun while enabled which have not ended yet, so that
+	// disabling tracing mid section still ends them
+	private static int sOpenSections;
+
+	private FlipTrace() {
+	}
+
+	static void setEnabled(boolean enabled) {
+		if (enabled && !sResolved) {
+			sResolved = true;
+			resolve();
+		}
+		sEnabled = enabled && Build.VERSION.SDK_INT >= 18;
+	}
+
+	static boolean isEnabled() {
+		return sEnabled;
+	}
+
+	@TargetApi(Build.VERSION_CODES.JELLY_BEAN_MR2)
+	private static void resolve() {
+		if (Build.VERSION.SDK_INT < 29) {
+			return;
+		}
+		try {
+			sSetCounter = Trace.class.getMethod("setCounter", String.class,
+					long.class);
+			sBoxedValues = new Long[BOXED_VALUE_CACHE_SIZE];
+		} catch (Exception e) {
+			// counters are optional
+			sSetCounter = null;
+		}
+	}
+
+	@TargetApi(Build.VERSION_CODES.JELLY_BEAN_MR2)
+	static void beginSection(String name) {
+		if (sEnabled) {
+			Trace.beginSection(name);
+			sOpenSections++;
+		}
+	}
+
+	@TargetApi(Build.VERSION_CODES.JELLY_BEAN_MR2)
+	static void endSection() {
+		if (sOpenSections > 0) {
+			sOpenSections--;
+			Trace.endSection();
+		}
+	}
+
+	static void setCounter(String name, long value) {
+		if (!sEnabled || sSetCounter == null) {
+			return;
+		}
+		sCounterArgs[0] = name;
+		sCounterArgs[1] = box(value);
+		try {
+			sSetCounter.invoke(null, sCounterArgs);
+		} catch (Exception e) {
+			// tracing must never break drawing, stop setting counters instead
+			sSetCounter = null;
+		}
+		sCounterArgs[0] = null;
+	}
+
+	/**
+	 * 
+	 * @param value
+	 * @return value boxed, reusing the box of an earlier call if possible
+	 */
+	private static Long box(long value) {
+		final int index = (int) (value & (BOXED_VALUE_CACHE_SIZE - 1));
+		Long boxed = sBoxedValues[index];
+		if (boxed == null || boxed.longValue() != value) {
+			boxed = Long.valueOf(value);
+			sBoxedValues[index] = boxed;
+		}
+		return boxed;
+	}
+
+}
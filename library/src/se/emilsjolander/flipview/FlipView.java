@@ -1,34 +1,30 @@
 package se.emilsjolander.flipview;
 
-import se.emilsjolander.flipview.Recycler.Scrap;
-import android.animation.Animator;
-import android.animation.AnimatorListenerAdapter;
-import android.animation.TimeInterpolator;
-import android.animation.ValueAnimator;
-import android.animation.ValueAnimator.AnimatorUpdateListener;
+import java.util.ArrayList;
+
+import se.emilsjolander.flipview.ScrapHeap.Scrap;
 import android.content.Context;
 import android.content.res.TypedArray;
 import android.database.DataSetObserver;
+import android.graphics.Bitmap;
 import android.graphics.Camera;
 import android.graphics.Canvas;
 import android.graphics.Color;
+import android.graphics.ColorFilter;
 import android.graphics.Matrix;
 import android.graphics.Paint;
-import android.graphics.Paint.Style;
 import android.graphics.Rect;
+import android.os.SystemClock;
 import android.support.v4.view.MotionEventCompat;
 import android.support.v4.view.VelocityTrackerCompat;
+import android.support.v4.view.ViewCompat;
 import android.util.AttributeSet;
 import android.view.MotionEvent;
 import android.view.VelocityTracker;
 import android.view.View;
 import android.view.ViewConfiguration;
-import android.view.animation.AccelerateDecelerateInterpolator;
-import android.view.animation.DecelerateInterpolator;
-import android.view.animation.Interpolator;
 import android.widget.FrameLayout;
 import android.widget.ListAdapter;
-import android.widget.Scroller;
 
 public class FlipView extends FrameLayout {
 
@@ -36,6 +32,13 @@ public class FlipView extends FrameLayout {
 		public void onFlippedToPage(FlipView v, int position, long id);
 	}
 
+	/**
+	 * Receives aggregated performance metrics, see {@link FlipMetrics}.
+	 */
+	public interface OnFrameMetricsListener {
+		public void onFrameMetrics(FlipView v, FlipMetrics metrics);
+	}
+
 	public interface OnOverFlipListener {
 		public void onOverFlip(FlipView v, OverFlipMode mode,
 				boolean overFlippingPrevious, float overFlipDistance,
@@ -52,26 +55,61 @@ public class FlipView extends FrameLayout {
 		View v;
 		int position;
 		int viewType;
+		long id;
 		boolean valid;
+		// the item has changed since the page was bound
+		boolean changed;
+		// rasterized contents of v, only set while flipping in snapshot mode
+		Bitmap snapshot;
+		// the specs v was last measured with, NOT_MEASURED if it has not been
+		int widthMeasureSpec = NOT_MEASURED;
+		int heightMeasureSpec = NOT_MEASURED;
+		// v is a child of the FlipView, otherwise it is detached from it but
+		// still attached to the window
+		boolean attached;
+		// stands in for an unbound page during a jump, drawn from a cached
+		// snapshot of the item at position if there is one
+		boolean placeholder;
+		// binding was deferred to stay within the bind budget, v is a
+		// placeholder view until the page is bound
+		boolean pending;
+		// the placeholder view came from a PlaceholderAdapter, otherwise it
+		// is a view in the placeholder color
+		boolean adapterPlaceholder;
 	}
 
 	// this will be the postion when there is not data
 	private static final int INVALID_PAGE_POSITION = -1;
 	// "null" flip distance
 	private static final int INVALID_FLIP_DISTANCE = -1;
+	// pages are always measured exactly, so this is never a valid spec
+	private static final int NOT_MEASURED = 0;
 
 	private static final int PEAK_ANIM_DURATION = 600;// in ms
+	private static final long NANOS_PER_MILLI = 1000000;
+	// never predict a touch further ahead than this
+	private static final int MAX_TOUCH_PREDICTION_FRAMES = 2;
 	private static final int MAX_SINGLE_PAGE_FLIP_ANIM_DURATION = 300;// in ms
 
 	// for normalizing width/height
-	private static final int FLIP_DISTANCE_PER_PAGE = 180;
-	private static final int MAX_SHADOW_ALPHA = 180;// out of 255
-	private static final int MAX_SHADE_ALPHA = 130;// out of 255
-	private static final int MAX_SHINE_ALPHA = 100;// out of 255
+	private static final int FLIP_DISTANCE_PER_PAGE = FlipMath.FLIP_DISTANCE_PER_PAGE;
 
 	// value for no pointer
 	private static final int INVALID_POINTER = -1;
 
+	// number of pages kept bound on each side of the current page by default
+	private static final int DEFAULT_OFFSCREEN_PAGE_LIMIT = 1;
+
+	// smooth flips never jump unless a jump threshold is set
+	private static final int DEFAULT_JUMP_THRESHOLD = Integer.MAX_VALUE;
+	// the most flips shown by a jump, however far it goes
+	private static final int MAX_JUMP_FLIPS = 3;
+	// rate at which the velocity of a momentum fling decays, per second
+	private static final float DEFAULT_FLING_FRICTION = 2;
+
+	// number of frames aggregated before metrics are delivered by default
+	private static final int DEFAULT_METRICS_BATCH_SIZE = 120;
+
 	// constant used by the attributes
 	private static final int VERTICAL_FLIP = 0;
 
@@ -93,19 +131,96 @@ public class FlipView extends FrameLayout {
 
 	};
 
-	private Scroller mScroller;
-	private final Interpolator flipInterpolator = new DecelerateInterpolator();
-	private ValueAnimator mPeakAnim;
-	private TimeInterpolator mPeakInterpolator = new AccelerateDecelerateInterpolator();
+	// receives the granular updates of a PageUpdateAdapter
+	private PageUpdateObserver pageUpdateObserver = new PageUpdateObserver() {
+
+		@Override
+		public void onItemRangeInserted(int positionStart, int itemCount) {
+			notifyItemRangeInserted(positionStart, itemCount);
+		}
+
+		@Override
+		public void onItemRangeRemoved(int positionStart, int itemCount) {
+			notifyItemRangeRemoved(positionStart, itemCount);
+		}
+
+		@Override
+		public void onItemMoved(int fromPosition, int toPosition) {
+			notifyItemMoved(fromPosition, toPosition);
+		}
+
+		@Override
+		public void onItemRangeChanged(int positionStart, int itemCount) {
+			notifyItemRangeChanged(positionStart, itemCount);
+		}
+
+	};
+
+	private PagePrefetcher.Callback mPrefetchCallback = new PagePrefetcher.Callback() {
+
+		@Override
+		public boolean prefetchPage(int direction) {
+			return prefetchOffscreenPage(direction);
+		}
+
+	};
+
+	// settles on pages and peaks, driven by vsync timestamps
+	private FlipAnimator mAnimator;
+	private FlipAnimation.Callback mAnimatorCallback = new FlipAnimation.Callback() {
+
+		@Override
+		public void onAnimationFrame(float flipDistance, long frameTimeNs) {
+			onFrameStart(frameTimeNs);
+			mIsInAnimationFrame = true;
+			if (mIsJumping) {
+				setJumpFlipDistance(flipDistance);
+			} else {
+				setFlipDistance(flipDistance);
+			}
+			mIsInAnimationFrame = false;
+			invalidate();
+		}
+
+		@Override
+		public void onAnimationEnd() {
+			completeJump();
+			// draw the landed page
+			invalidate();
+		}
+
+	};
 
 	private boolean mIsFlippingVertically = true;
 	private boolean mIsFlipping;
+	// true while the flip distance is set by a frame of the animator
+	private boolean mIsInAnimationFrame;
 	private boolean mIsUnableToFlip;
 	private boolean mIsFlippingEnabled = true;
 	private boolean mLastTouchAllowed = true;
 	private int mTouchSlop;
 	private boolean mIsOverFlipping;
 
+	// touch moves are applied to the flip distance once per frame, this is
+	// the distance in pixels moved since the last frame
+	private float mPendingTouchDelta;
+	private long mLastTouchEventTime;
+	private boolean mTouchFramePosted;
+	private final Runnable mTouchFrameRunnable = new Runnable() {
+
+		@Override
+		public void run() {
+			mTouchFramePosted = false;
+			if (mIsFlipping) {
+				onFrameStart(FlipAnimator.getAnimationFrameTime());
+				applyTouchMoves(true);
+			}
+		}
+	};
+	private boolean mIsTouchPredictionEnabled;
+	// flip distance added on top of the touch position by prediction
+	private float mTouchPrediction;
+
 	// keep track of pointer
 	private float mLastX = -1;
 	private float mLastY = -1;
@@ -118,14 +233,95 @@ public class FlipView extends FrameLayout {
 
 	// views get recycled after they have been pushed out of the active queue
 	private Recycler mRecycler = new Recycler();
+	// binds offscreen pages in between frames
+	private PagePrefetcher mPrefetcher;
 
 	private ListAdapter mAdapter;
 	private int mPageCount = 0;
-	private Page mPreviousPage = new Page();
-	private Page mCurrentPage = new Page();
-	private Page mNextPage = new Page();
+	// the pages bound to views, a page is stored at its position modulo the
+	// window size so shifting the window only touches the pages entering and
+	// leaving it
+	private int mOffscreenPageLimit = DEFAULT_OFFSCREEN_PAGE_LIMIT;
+	private Page[] mActivePages = createActivePages(DEFAULT_OFFSCREEN_PAGE_LIMIT);
+	// never valid, used in place of a page outside of the adapter range
+	private final Page mEmptyPage = new Page();
+	private Page mPreviousPage = mEmptyPage;
+	private Page mCurrentPage = mEmptyPage;
+	private Page mNextPage = mEmptyPage;
 	private View mEmptyView;
 
+	// a jump flips from the current page to a far away page through a few
+	// placeholders, binding only the destination
+	private int mJumpThreshold = DEFAULT_JUMP_THRESHOLD;
+	private boolean mIsJumping;
+	// the flip distance through mJumpPages, which are ordered like pages
+	private float mJumpFlipDistance;
+	private final Page[] mJumpPages = new Page[MAX_JUMP_FLIPS + 1];
+	private int mJumpPageCount;
+	// the destination of a jump, kept out of the active pages until landing
+	private Page mJumpPage = new Page();
+	private final Page[] mPlaceholderPages = createPlaceholderPages();
+	private final Paint mPlaceholderPaint = new Paint();
+
+	// time each frame may spend binding the pages needed for a flip, 0 to
+	// always bind them right away
+	private long mBindFrameBudgetNs;
+	// start of the frame the bind time is counted for, and that time
+	private long mBindFrameStartNs;
+	private long mBindFrameTimeNs;
+	// running average of the time a page takes to bind
+	private long mAverageBindNs;
+	// placeholder views not shown by any page, only views created by the
+	// adapter are handed back to it as convert views
+	private final ArrayList<View> mFreeAdapterPlaceholderViews = new ArrayList<View>();
+	private final ArrayList<View> mFreePlaceholderViews = new ArrayList<View>();
+
+	// flings travel as far as their velocity carries them, jumping if far
+	private boolean mIsMomentumFlingEnabled;
+	private float mFlingFriction = DEFAULT_FLING_FRICTION;
+
+	// reused to describe fine grained changes to the adapter
+	private final PageUpdate mPageUpdate = new PageUpdate();
+	// page a settling flip was headed to while applying updates
+	private int mPendingFlipTarget = INVALID_PAGE_POSITION;
+	// true if the updates being applied changed the contents of an item
+	private boolean mPendingItemsChanged;
+
+	/**
+	 * Posted when landing on a page, reused to not allocate while flipping
+	 */
+	private class FlippedToPageEvent implements Runnable {
+		int page;
+
+		@Override
+		public void run() {
+			if (mOnFlipListener != null && mAdapter != null
+					&& page < mAdapter.getCount()) {
+				mOnFlipListener.onFlippedToPage(FlipView.this, page,
+						mAdapter.getItemId(page));
+			}
+		}
+	}
+
+	private final FlippedToPageEvent mFlippedToPageEvent = new FlippedToPageEvent();
+
+	// metrics of the current batch, null unless there is a listener
+	private FlipMetrics mMetrics;
+	// metrics of the last finished batch, handed to the listener
+	private FlipMetrics mDeliveredMetrics;
+	private int mMetricsBatchSize;
+	private OnFrameMetricsListener mOnFrameMetricsListener;
+	private final Runnable mDeliverMetrics = new Runnable() {
+
+		@Override
+		public void run() {
+			if (mOnFrameMetricsListener != null) {
+				mOnFrameMetricsListener.onFrameMetrics(FlipView.this,
+						mDeliveredMetrics);
+			}
+		}
+	};
+
 	private OnFlipListener mOnFlipListener;
 	private OnOverFlipListener mOnOverFlipListener;
 
@@ -139,6 +335,8 @@ public class FlipView extends FrameLayout {
 
 	// clipping rects
 	private Rect mTopRect = new Rect();
+	// the area over flip effects draw into when animating a settled page
+	private final Rect mOverFlipDirtyRect = new Rect();
 	private Rect mBottomRect = new Rect();
 	private Rect mRightRect = new Rect();
 	private Rect mLeftRect = new Rect();
@@ -146,11 +344,38 @@ public class FlipView extends FrameLayout {
 	// used for transforming the canvas
 	private Camera mCamera = new Camera();
 	private Matrix mMatrix = new Matrix();
+	private final float[] mMatrixValues = new float[9];
+
+	// the transform of the flipping half only depends on the camera rotation
+	// and the size of the view, so it is created once per quantized angle
+	private final QuantizedMatrixTable mFlipMatrices = new QuantizedMatrixTable(
+			-90, 90, new QuantizedMatrixTable.MatrixFactory() {
+
+				@Override
+				public void createMatrix(float degrees, float[] values) {
+					mCamera.save();
+					if (mIsFlippingVertically) {
+						mCamera.rotateX(degrees);
+					} else {
+						mCamera.rotateY(degrees);
+					}
+					mCamera.getMatrix(mMatrix);
+					mCamera.restore();
+					positionMatrix();
+					mMatrix.getValues(values);
+				}
+			});
 
-	// paints drawn above views when flipping
-	private Paint mShadowPaint = new Paint();
-	private Paint mShadePaint = new Paint();
-	private Paint mShinePaint = new Paint();
+	// draws pages from bitmaps instead of view trees while flipping
+	private boolean mIsSnapshotFlipEnabled;
+	private SnapshotRenderer mSnapshotRenderer = new SnapshotRenderer();
+	// snapshots of recently flipped pages keyed by item id, null if disabled
+	private SnapshotCache mSnapshotCache;
+
+	// shadows, shades and shines drawn above views when flipping
+	private final ShadowRenderer mShadowRenderer = new ShadowRenderer();
+	// the part of the static halves covered by the flipping page this frame
+	private final FlipCoverage mFlipCoverage = new FlipCoverage();
 
 	public FlipView(Context context) {
 		this(context, null);
@@ -182,20 +407,16 @@ public class FlipView extends FrameLayout {
 		final Context context = getContext();
 		final ViewConfiguration configuration = ViewConfiguration.get(context);
 
-		mScroller = new Scroller(context, flipInterpolator);
+		mAnimator = new FlipAnimator(this, mAnimatorCallback);
+		mPlaceholderPaint.setColor(Color.WHITE);
+		mPrefetcher = new PagePrefetcher(this, mPrefetchCallback);
 		mTouchSlop = configuration.getScaledPagingTouchSlop();
 		mMinimumVelocity = configuration.getScaledMinimumFlingVelocity();
 		mMaximumVelocity = configuration.getScaledMaximumFlingVelocity();
-
-		mShadowPaint.setColor(Color.BLACK);
-		mShadowPaint.setStyle(Style.FILL);
-		mShadePaint.setColor(Color.BLACK);
-		mShadePaint.setStyle(Style.FILL);
-		mShinePaint.setColor(Color.WHITE);
-		mShinePaint.setStyle(Style.FILL);
 	}
 
 	private void dataSetChanged() {
+		FlipTrace.beginSection(FlipTrace.DATA_SET_CHANGED);
 		final int currentPage = mCurrentPageIndex;
 		int newPosition = currentPage;
 
@@ -211,6 +432,7 @@ public class FlipView extends FrameLayout {
 		recycleActiveViews();
 		mRecycler.setViewTypeCount(mAdapter.getViewTypeCount());
 		mRecycler.invalidateScraps();
+		evictSnapshotCache();
 
 		mPageCount = mAdapter.getCount();
 
@@ -231,16 +453,25 @@ public class FlipView extends FrameLayout {
 		}
 
 		updateEmptyStatus();
+		FlipTrace.endSection();
 	}
 
 	private int getNewPositionOfCurrentPage() {
 		// check if id is on same position, this is because it will
 		// often be that and this way you do not need to iterate the whole
 		// dataset. If it is the same position, you are done.
-		if (mCurrentPageId == mAdapter.getItemId(mCurrentPageIndex)) {
+		if (mCurrentPageIndex < mAdapter.getCount()
+				&& mCurrentPageId == mAdapter.getItemId(mCurrentPageIndex)) {
 			return mCurrentPageIndex;
 		}
 
+		// let the adapter look up the id if it knows how to
+		if (mAdapter instanceof ItemPositionLookup) {
+			final int position = ((ItemPositionLookup) mAdapter)
+					.getPositionForItemId(mCurrentPageId);
+			return position < 0 ? mCurrentPageIndex : position;
+		}
+
 		// iterate the dataset and look for the correct id. If it
 		// exists, set that position as the current position.
 		for (int i = 0; i < mAdapter.getCount(); i++) {
@@ -254,12 +485,227 @@ public class FlipView extends FrameLayout {
 	}
 
 	private void dataSetInvalidated() {
+		FlipTrace.beginSection(FlipTrace.DATA_SET_INVALIDATED);
 		if (mAdapter != null) {
-			mAdapter.unregisterDataSetObserver(dataSetObserver);
+			unregisterObservers();
 			mAdapter = null;
 		}
-		mRecycler = new Recycler();
+		recycleActiveViews();
+		mRecycler.clear();
+		evictSnapshotCache();
 		removeAllViews();
+		FlipTrace.endSection();
+	}
+
+	/**
+	 * Apply a change to a range of items without rebinding the pages that
+	 * were not affected by it.
+	 * 
+	 * @param update
+	 */
+	private void applyPageUpdate(PageUpdate update) {
+		FlipTrace.beginSection(FlipTrace.APPLY_PAGE_UPDATES);
+		if (beginPageUpdates()) {
+			movePagesForUpdate(update);
+			finishPageUpdates();
+		}
+		FlipTrace.endSection();
+	}
+
+	/**
+	 * Apply a batch of changes, the pages are only bound once all of the
+	 * changes have been applied as the adapter already reflects the last one.
+	 * 
+	 * @param diff
+	 */
+	void applyPageUpdates(PageListDiff diff) {
+		FlipTrace.beginSection(FlipTrace.APPLY_PAGE_UPDATES);
+		if (beginPageUpdates()) {
+			for (int i = 0; i < diff.getUpdateCount(); i++) {
+				movePagesForUpdate(diff.getUpdate(i, mPageUpdate));
+			}
+			finishPageUpdates();
+		}
+		FlipTrace.endSection();
+	}
+
+	/**
+	 * 
+	 * @return true if the pages can be updated in place, false if there is
+	 *         nothing to keep and the data set has been reloaded instead
+	 */
+	private boolean beginPageUpdates() {
+		if (mAdapter == null) {
+			return false;
+		}
+		if (mCurrentPageIndex == INVALID_PAGE_POSITION
+				|| mAdapter.getCount() == 0) {
+			// going to or from an empty adapter, nothing to keep
+			dataSetChanged();
+			return false;
+		}
+
+		// animations target absolute flip distances which will no longer
+		// match, a settling flip is retargeted once the updates are done
+		completeJump();
+		endPeak();
+		mPendingFlipTarget = INVALID_PAGE_POSITION;
+		mPendingItemsChanged = false;
+		if (mAnimator.isSettling()) {
+			mPendingFlipTarget = Math.round(mAnimator.getFinalFlipDistance()
+					/ (float) FLIP_DISTANCE_PER_PAGE);
+		}
+		return true;
+	}
+
+	/**
+	 * Move the active pages, scraps and the current page to the positions
+	 * they have after an update. Nothing is read from the adapter here as it
+	 * might not match the positions until all updates have been applied.
+	 * 
+	 * @param update
+	 */
+	private void movePagesForUpdate(PageUpdate update) {
+		// move the active pages to their new positions, recycling the pages
+		// of removed items and marking the pages of changed items
+		for (Page p : mActivePages) {
+			if (!p.valid) {
+				continue;
+			}
+			final int position = update.applyToPosition(p.position);
+			if (position == PageUpdate.REMOVED) {
+				recyclePage(p);
+			} else {
+				p.position = position;
+				p.changed |= update.isChanged(position);
+			}
+		}
+
+		// scraps of removed or changed items can no longer be used as is
+		mRecycler.applyUpdate(update);
+		mPendingItemsChanged |= update.type == PageUpdate.CHANGE;
+
+		if (update.type == PageUpdate.ADD) {
+			mPageCount += update.itemCount;
+		} else if (update.type == PageUpdate.REMOVE) {
+			mPageCount -= update.itemCount;
+		}
+
+		// keep the current item on screen, if it was removed show the item
+		// which took its place
+		final int oldPageIndex = mCurrentPageIndex;
+		int newPageIndex = update.applyToPosition(oldPageIndex);
+		final boolean currentPageRemoved = newPageIndex == PageUpdate.REMOVED;
+		if (currentPageRemoved) {
+			newPageIndex = Math.min(update.positionStart, mPageCount - 1);
+		}
+		mCurrentPageIndex = newPageIndex;
+		mFlipDistance += (newPageIndex - oldPageIndex) * FLIP_DISTANCE_PER_PAGE;
+		if (!currentPageRemoved && mLastDispatchedPageEventIndex == oldPageIndex) {
+			mLastDispatchedPageEventIndex = newPageIndex;
+		}
+
+		if (mPendingFlipTarget != INVALID_PAGE_POSITION) {
+			final int target = update.applyToPosition(mPendingFlipTarget);
+			mPendingFlipTarget = target == PageUpdate.REMOVED ? newPageIndex
+					: target;
+		}
+	}
+
+	/**
+	 * Bind the pages for the positions reached after applying updates.
+	 */
+	private void finishPageUpdates() {
+		if (mPageCount != mAdapter.getCount() || mCurrentPageIndex < 0) {
+			// the updates did not describe the change to the adapter
+			dataSetChanged();
+			return;
+		}
+		mCurrentPageId = mAdapter.getItemId(mCurrentPageIndex);
+
+		recyclePagesOutsideWindow();
+		relocateActivePages();
+
+		for (Page p : mActivePages) {
+			if (p.valid && p.changed) {
+				rebindPage(p);
+			}
+		}
+		// snapshots of changed items are outdated, also those of items
+		// outside of the window
+		if (mPendingItemsChanged) {
+			mPendingItemsChanged = false;
+			evictSnapshotCache();
+		}
+
+		// bind the pages around the current page before retargeting the flip,
+		// a flip which jumps starts from the current page
+		updateActivePages(INVALID_PAGE_POSITION);
+
+		if (mPendingFlipTarget != INVALID_PAGE_POSITION) {
+			smoothFlipTo(Math.min(Math.max(mPendingFlipTarget, 0),
+					mPageCount - 1));
+			mPendingFlipTarget = INVALID_PAGE_POSITION;
+		}
+
+		updateEmptyStatus();
+		invalidate();
+	}
+
+	/**
+	 * Bind an active page again, reusing its view if the adapter allows it.
+	 * 
+	 * @param p
+	 */
+	private void rebindPage(Page p) {
+		p.changed = false;
+		dropSnapshot(p);
+		if (p.pending) {
+			// the item is read once the page is bound
+			p.id = mAdapter.getItemId(p.position);
+			return;
+		}
+		final View old = p.v;
+		final int viewType = mAdapter.getItemViewType(p.position);
+		if (viewType == p.viewType) {
+			FlipTrace.beginSection(FlipTrace.GET_VIEW);
+			p.v = convertView(p.position, old);
+			FlipTrace.endSection();
+		} else {
+			mRecycler.addScrapView(old, p.position, p.viewType);
+			p.viewType = viewType;
+			p.v = getView(p.position, viewType);
+		}
+		p.id = mAdapter.getItemId(p.position);
+		if (p.v != old) {
+			p.widthMeasureSpec = NOT_MEASURED;
+			p.heightMeasureSpec = NOT_MEASURED;
+			final boolean attached = p.attached;
+			removePageView(p, old);
+			addPageView(p, attached);
+			measureAndLayoutPage(p);
+		}
+	}
+
+	@Override
+	protected void onAttachedToWindow() {
+		super.onAttachedToWindow();
+		mAnimator.resume();
+	}
+
+	@Override
+	protected void onDetachedFromWindow() {
+		// detached pages are only told they left the window as children
+		for (Page p : mActivePages) {
+			attachPage(p);
+		}
+		// frame callbacks are not tied to the view, don't keep them coming
+		mAnimator.pause();
+		if (mTouchFramePosted) {
+			mTouchFramePosted = false;
+			removeCallbacks(mTouchFrameRunnable);
+		}
+		super.onDetachedFromWindow();
 	}
 
 	@Override
@@ -272,6 +718,10 @@ public class FlipView extends FrameLayout {
 		setMeasuredDimension(width, height);
 	}
 
+	/**
+	 * Measure the pages which have not been measured at this size yet or have
+	 * requested a layout since. Every child is the view of an active page.
+	 */
 	@Override
 	protected void measureChildren(int widthMeasureSpec, int heightMeasureSpec) {
 		int width = getDefaultSize(0, widthMeasureSpec);
@@ -281,11 +731,23 @@ public class FlipView extends FrameLayout {
 				MeasureSpec.EXACTLY);
 		int childHeightMeasureSpec = MeasureSpec.makeMeasureSpec(height,
 				MeasureSpec.EXACTLY);
-		final int childCount = getChildCount();
-		for (int i = 0; i < childCount; i++) {
-			final View child = getChildAt(i);
-			measureChild(child, childWidthMeasureSpec, childHeightMeasureSpec);
+		for (Page p : mActivePages) {
+			if (p.valid) {
+				measurePage(p, childWidthMeasureSpec, childHeightMeasureSpec);
+			}
+		}
+	}
+
+	private void measurePage(Page p, int widthMeasureSpec,
+			int heightMeasureSpec) {
+		if (p.widthMeasureSpec == widthMeasureSpec
+				&& p.heightMeasureSpec == heightMeasureSpec
+				&& !p.v.isLayoutRequested()) {
+			return;
 		}
+		measureChild(p.v, widthMeasureSpec, heightMeasureSpec);
+		p.widthMeasureSpec = widthMeasureSpec;
+		p.heightMeasureSpec = heightMeasureSpec;
 	}
 
 	@Override
@@ -298,6 +760,17 @@ public class FlipView extends FrameLayout {
 	protected void onLayout(boolean changed, int l, int t, int r, int b) {
 		layoutChildren();
 
+		if (changed) {
+			releaseSnapshots();
+			evictSnapshotCache();
+			mSnapshotRenderer.setSize(getWidth(), getHeight());
+			mFlipMatrices.invalidate();
+			mShadowRenderer.setSize(getWidth(), getHeight(),
+					mIsFlippingVertically);
+			mFlipCoverage.setSize(getWidth(), getHeight(),
+					mIsFlippingVertically);
+		}
+
 		mTopRect.top = 0;
 		mTopRect.left = 0;
 		mTopRect.right = getWidth();
@@ -320,15 +793,28 @@ public class FlipView extends FrameLayout {
 	}
 
 	private void layoutChildren() {
-		final int childCount = getChildCount();
-		for (int i = 0; i < childCount; i++) {
-			final View child = getChildAt(i);
-			layoutChild(child);
+		for (Page p : mActivePages) {
+			if (p.valid) {
+				layoutChild(p.v);
+			}
 		}
 	}
 
+	/**
+	 * Layout a child to fill the view, unless it already does and has not
+	 * requested a layout since.
+	 * 
+	 * @param child
+	 */
 	private void layoutChild(View child) {
-		child.layout(0, 0, getWidth(), getHeight());
+		final int width = getWidth();
+		final int height = getHeight();
+		if (!child.isLayoutRequested() && child.getLeft() == 0
+				&& child.getTop() == 0 && child.getRight() == width
+				&& child.getBottom() == height) {
+			return;
+		}
+		child.layout(0, 0, width, height);
 	}
 
 	private void setFlipDistance(float flipDistance) {
@@ -345,114 +831,655 @@ public class FlipView extends FrameLayout {
 			return;
 		}
 
+		// restart prefetching towards the other side if the flip reversed
+		if (mCurrentPageIndex != INVALID_PAGE_POSITION) {
+			mPrefetcher.setDirection(flipDistance > mFlipDistance ? 1 : -1);
+		}
+
 		mFlipDistance = flipDistance;
+		FlipTrace.setCounter(FlipTrace.COUNTER_FLIP_DISTANCE,
+				(long) mFlipDistance);
 
 		final int currentPageIndex = (int) Math.round(mFlipDistance
 				/ FLIP_DISTANCE_PER_PAGE);
 
 		if (mCurrentPageIndex != currentPageIndex) {
+			FlipTrace.beginSection(FlipTrace.SET_FLIP_DISTANCE);
+			final int previousPageIndex = mCurrentPageIndex;
 			mCurrentPageIndex = currentPageIndex;
 			mCurrentPageId = mAdapter.getItemId(mCurrentPageIndex);
-
-			// TODO be smarter about this. Dont remove a view that will be added
-			// again on the next line.
-			recycleActiveViews();
-
-			// add the new active views
-			if (mCurrentPageIndex > 0) {
-				fillPageForIndex(mPreviousPage, mCurrentPageIndex - 1);
-				addView(mPreviousPage.v);
-			}
-			if (mCurrentPageIndex >= 0 && mCurrentPageIndex < mPageCount) {
-				fillPageForIndex(mCurrentPage, mCurrentPageIndex);
-				addView(mCurrentPage.v);
-			}
-			if (mCurrentPageIndex < mPageCount - 1) {
-				fillPageForIndex(mNextPage, mCurrentPageIndex + 1);
-				addView(mNextPage.v);
-			}
+			FlipTrace.setCounter(FlipTrace.COUNTER_CURRENT_PAGE,
+					mCurrentPageIndex);
+			updateActivePages(previousPageIndex);
+			FlipTrace.endSection();
 		}
 
 		invalidate();
 	}
 
-	private void fillPageForIndex(Page p, int i) {
-		p.position = i;
-		p.viewType = mAdapter.getItemViewType(p.position);
-		p.v = getView(p.position, p.viewType);
-		p.valid = true;
+	/**
+	 * Shift the window of active pages so that it is centered around the
+	 * current page. Pages which are still within the window keep their views
+	 * attached and only the pages leaving the window are recycled. The current
+	 * page and its neighbours are needed for drawing and are bound right away,
+	 * the rest of the window is left to the prefetcher.
+	 * 
+	 * @param previousPageIndex
+	 *            the page which was current before this update
+	 */
+	private void updateActivePages(int previousPageIndex) {
+		recyclePagesOutsideWindow();
+
+		// bind the pages which are needed to draw a flip, the current page
+		// first as it gets the most of a bind budget
+		final boolean countHits = previousPageIndex != INVALID_PAGE_POSITION;
+		bindActivePage(mCurrentPageIndex, previousPageIndex);
+		bindActivePage(mCurrentPageIndex - 1, previousPageIndex);
+		bindActivePage(mCurrentPageIndex + 1, previousPageIndex);
+
+		mPreviousPage = getActivePage(mCurrentPageIndex - 1);
+		mCurrentPage = getActivePage(mCurrentPageIndex);
+		mNextPage = getActivePage(mCurrentPageIndex + 1);
+
+		if (mOffscreenPageLimit > 1) {
+			mPrefetcher.schedule(countHits ? Integer.signum(mCurrentPageIndex
+					- previousPageIndex) : 0);
+		}
 	}
 
-	private void recycleActiveViews() {
-		// remove and recycle the currently active views
-		if (mPreviousPage.valid) {
-			removeView(mPreviousPage.v);
-			mRecycler.addScrapView(mPreviousPage.v, mPreviousPage.position,
-					mPreviousPage.viewType);
-			mPreviousPage.valid = false;
+	/**
+	 * Bind every page of the window around the current page which is not
+	 * bound yet, including pages showing a placeholder. Used when the window
+	 * itself changes, so nothing is counted as a prefetch hit or miss and no
+	 * page is left to a placeholder.
+	 */
+	private void bindAllActivePages() {
+		recyclePagesOutsideWindow();
+
+		// the current page first, then outwards
+		bindWholePage(mCurrentPageIndex);
+		for (int d = 1; d <= mOffscreenPageLimit; d++) {
+			bindWholePage(mCurrentPageIndex - d);
+			bindWholePage(mCurrentPageIndex + d);
 		}
-		if (mCurrentPage.valid) {
-			removeView(mCurrentPage.v);
-			mRecycler.addScrapView(mCurrentPage.v, mCurrentPage.position,
-					mCurrentPage.viewType);
-			mCurrentPage.valid = false;
+
+		mPreviousPage = getActivePage(mCurrentPageIndex - 1);
+		mCurrentPage = getActivePage(mCurrentPageIndex);
+		mNextPage = getActivePage(mCurrentPageIndex + 1);
+	}
+
+	private void bindWholePage(int i) {
+		if (i < 0 || i >= mPageCount) {
+			return;
 		}
-		if (mNextPage.valid) {
-			removeView(mNextPage.v);
-			mRecycler.addScrapView(mNextPage.v, mNextPage.position,
-					mNextPage.viewType);
-			mNextPage.valid = false;
+		final Page p = mActivePages[i % mActivePages.length];
+		if (!p.valid) {
+			fillPageForIndex(p, i);
+			addPageView(p, i == mCurrentPageIndex);
+			measureAndLayoutPage(p);
+		} else if (p.pending) {
+			bindPendingPage(p);
 		}
 	}
 
-	private View getView(int index, int viewType) {
-		// get the scrap from the recycler corresponding to the correct view
-		// type
-		Scrap scrap = mRecycler.getScrapView(index, viewType);
-
-		// get a view from the adapter if a scrap was not found or it is
-		// invalid.
-		View v = null;
-		if (scrap == null || !scrap.valid) {
-			v = mAdapter.getView(index, scrap == null ? null : scrap.v, this);
-		} else {
-			v = scrap.v;
+	/**
+	 * Bind a page needed to draw a flip if it is not bound yet. While
+	 * dragging or settling, a page which does not fit in the bind budget of
+	 * the frame gets a placeholder and is bound in between the following
+	 * frames. At rest, for example after flipTo, there is no frame to keep
+	 * and the page is bound right away.
+	 * 
+	 * @param i
+	 * @param previousPageIndex
+	 *            the page which was current before this update
+	 */
+	private void bindActivePage(int i, int previousPageIndex) {
+		if (i < 0 || i >= mPageCount) {
+			return;
+		}
+		final boolean countHits = previousPageIndex != INVALID_PAGE_POSITION;
+		final boolean inFrame = countHits
+				&& (mIsFlipping || mIsInAnimationFrame);
+		final Page p = mActivePages[i % mActivePages.length];
+		if (!p.valid) {
+			if (inFrame && !hasBindBudget()) {
+				fillPlaceholderForIndex(p, i);
+			} else {
+				final long bindNs = fillPageForIndex(p, i);
+				if (inFrame) {
+					mBindFrameTimeNs += bindNs;
+				}
+			}
+			addPageView(p, i == mCurrentPageIndex);
+			// at the size it will be drawn at, no layout pass is needed
+			measureAndLayoutPage(p);
+			if (countHits) {
+				mPrefetcher.recordMiss();
+			}
+		} else if (countHits && Math.abs(i - previousPageIndex) > 1) {
+			mPrefetcher.recordHit();
 		}
+	}
 
-		// return view
-		return v;
+	/**
+	 * Called at the start of every animation and touch frame, before the
+	 * flip distance is changed. Pages bound for the flip after this count
+	 * towards the bind budget of the frame.
+	 * 
+	 * @param frameTimeNs
+	 *            the vsync time of the frame
+	 */
+	private void onFrameStart(long frameTimeNs) {
+		mPrefetcher.onFrameStart(frameTimeNs);
+		if (frameTimeNs != mBindFrameStartNs) {
+			mBindFrameStartNs = frameTimeNs;
+			mBindFrameTimeNs = 0;
+		}
 	}
 
-	@Override
-	public boolean onInterceptTouchEvent(MotionEvent ev) {
+	/**
+	 * 
+	 * @return true if another page is expected to bind within the bind
+	 *         budget of this frame, always true without a budget
+	 */
+	private boolean hasBindBudget() {
+		if (mBindFrameBudgetNs <= 0) {
+			return true;
+		}
+		return mBindFrameTimeNs + mAverageBindNs <= mBindFrameBudgetNs;
+	}
 
-		if (!mIsFlippingEnabled) {
-			return false;
+	/**
+	 * Bind a page which was given a placeholder, the pages closest to being
+	 * drawn first.
+	 * 
+	 * @param direction
+	 * @return true if a page was bound
+	 */
+	private boolean bindPendingPage(int direction) {
+		if (bindPendingPage(mCurrentPage)
+				|| bindPendingPage(getActivePage(mCurrentPageIndex + direction))
+				|| bindPendingPage(getActivePage(mCurrentPageIndex - direction))) {
+			return true;
+		}
+		for (Page p : mActivePages) {
+			if (bindPendingPage(p)) {
+				return true;
+			}
 		}
+		return false;
+	}
 
-		if (mPageCount < 1) {
+	private boolean bindPendingPage(Page p) {
+		if (!p.valid || !p.pending) {
 			return false;
 		}
+		final View placeholder = p.v;
+		final boolean attached = p.attached;
+		removePageView(p, placeholder);
+		releasePlaceholderView(p, placeholder);
+		fillPageForIndex(p, p.position);
+		addPageView(p, attached);
+		measureAndLayoutPage(p);
+		invalidate();
+		return true;
+	}
 
-		final int action = ev.getAction() & MotionEvent.ACTION_MASK;
-
-		if (action == MotionEvent.ACTION_CANCEL
-				|| action == MotionEvent.ACTION_UP) {
-			mIsFlipping = false;
-			mIsUnableToFlip = false;
-			mActivePointerId = INVALID_POINTER;
-			if (mVelocityTracker != null) {
-				mVelocityTracker.recycle();
-				mVelocityTracker = null;
-			}
+	/**
+	 * Bind the closest unbound page of the window, pages in the flip direction
+	 * are bound before the pages in the other direction.
+	 * 
+	 * @param direction
+	 * @return true if a page was bound
+	 */
+	private boolean prefetchOffscreenPage(int direction) {
+		if (mAdapter == null || mCurrentPageIndex == INVALID_PAGE_POSITION) {
 			return false;
 		}
-
-		if (action != MotionEvent.ACTION_DOWN) {
-			if (mIsFlipping) {
+		if (mIsJumping) {
+			return prefetchJumpDestinationPage(direction);
+		}
+		if (bindPendingPage(direction)) {
+			return true;
+		}
+		for (int distance = 2; distance <= mOffscreenPageLimit; distance++) {
+			if (prefetchPageForIndex(mCurrentPageIndex + distance * direction)) {
 				return true;
-			} else if (mIsUnableToFlip) {
-				return false;
+			}
+		}
+		for (int distance = 2; distance <= mOffscreenPageLimit; distance++) {
+			if (prefetchPageForIndex(mCurrentPageIndex - distance * direction)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Bind the destination of a jump if it is a placeholder, and otherwise
+	 * the closest unbound page around it, into the slots of the pages around
+	 * the source which are not drawn while jumping. The source page itself
+	 * is kept.
+	 * 
+	 * @param direction
+	 *            the direction of the jump
+	 * @return true if a page was bound
+	 */
+	private boolean prefetchJumpDestinationPage(int direction) {
+		if (bindPendingPage(mJumpPage)) {
+			return true;
+		}
+		final int destination = mJumpPage.position;
+		for (int distance = 1; distance <= mOffscreenPageLimit; distance++) {
+			if (prefetchJumpPageForIndex(destination + distance * direction)
+					|| prefetchJumpPageForIndex(destination - distance
+							* direction)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private boolean prefetchJumpPageForIndex(int i) {
+		if (i < 0 || i >= mPageCount) {
+			return false;
+		}
+		final Page p = mActivePages[i % mActivePages.length];
+		if ((p.valid && p.position == i)
+				|| (p.valid && p.position == mCurrentPageIndex)) {
+			return false;
+		}
+		if (p.valid) {
+			recyclePage(p);
+		}
+		fillPageForIndex(p, i);
+		addPageView(p, false);
+		measureAndLayoutPage(p);
+		return true;
+	}
+
+	private boolean prefetchPageForIndex(int i) {
+		if (i < 0 || i >= mPageCount) {
+			return false;
+		}
+		final Page p = mActivePages[i % mActivePages.length];
+		if (p.valid) {
+			return false;
+		}
+		fillPageForIndex(p, i);
+		// offscreen pages are kept detached until they are flipped to
+		addPageView(p, false);
+		measureAndLayoutPage(p);
+		return true;
+	}
+
+	/**
+	 * Measure and layout a newly bound page right away so that it is ready to
+	 * be drawn once it is needed.
+	 * 
+	 * @param p
+	 */
+	private void measureAndLayoutPage(Page p) {
+		final int width = getWidth();
+		final int height = getHeight();
+		if (width > 0 && height > 0) {
+			measurePage(p,
+					MeasureSpec.makeMeasureSpec(width, MeasureSpec.EXACTLY),
+					MeasureSpec.makeMeasureSpec(height, MeasureSpec.EXACTLY));
+			layoutChild(p.v);
+		}
+	}
+
+	/**
+	 * Recycle the pages which have been pushed out of the window around the
+	 * current page.
+	 */
+	private void recyclePagesOutsideWindow() {
+		for (Page p : mActivePages) {
+			if (p.valid
+					&& Math.abs(p.position - mCurrentPageIndex) > mOffscreenPageLimit) {
+				recyclePage(p);
+			}
+		}
+	}
+
+	/**
+	 * Move every active page to the slot of its position after the positions
+	 * have changed. All valid pages must be within the window.
+	 */
+	private void relocateActivePages() {
+		final int windowSize = mActivePages.length;
+		for (int i = 0; i < windowSize; i++) {
+			Page p = mActivePages[i];
+			while (p.valid && p.position % windowSize != i) {
+				final int slot = p.position % windowSize;
+				mActivePages[i] = mActivePages[slot];
+				mActivePages[slot] = p;
+				p = mActivePages[i];
+			}
+		}
+	}
+
+	private static Page[] createPlaceholderPages() {
+		final Page[] pages = new Page[MAX_JUMP_FLIPS - 1];
+		for (int i = 0; i < pages.length; i++) {
+			pages[i] = new Page();
+			pages[i].placeholder = true;
+		}
+		return pages;
+	}
+
+	private static Page[] createActivePages(int offscreenPageLimit) {
+		final Page[] pages = new Page[offscreenPageLimit * 2 + 1];
+		for (int i = 0; i < pages.length; i++) {
+			pages[i] = new Page();
+		}
+		return pages;
+	}
+
+	/**
+	 * 
+	 * @param position
+	 * @return the active page bound to position, or an invalid page if there
+	 *         is none
+	 */
+	private Page getActivePage(int position) {
+		if (position < 0 || position >= mPageCount) {
+			return mEmptyPage;
+		}
+		final Page p = mActivePages[position % mActivePages.length];
+		return p.valid && p.position == position ? p : mEmptyPage;
+	}
+
+	/**
+	 * 
+	 * @param p
+	 * @param i
+	 * @return the time binding the page took, 0 without a bind budget
+	 */
+	private long fillPageForIndex(Page p, int i) {
+		FlipTrace.beginSection(FlipTrace.FILL_PAGE);
+		final long start = mBindFrameBudgetNs > 0 ? System.nanoTime() : 0;
+		p.position = i;
+		p.changed = false;
+		p.viewType = mAdapter.getItemViewType(p.position);
+		p.id = mAdapter.getItemId(p.position);
+		p.v = getView(p.position, p.viewType);
+		p.widthMeasureSpec = NOT_MEASURED;
+		p.heightMeasureSpec = NOT_MEASURED;
+		p.pending = false;
+		p.valid = true;
+		long bindNs = 0;
+		if (mBindFrameBudgetNs > 0) {
+			// prefetched pages count towards the average but not towards
+			// the budget of the frame, they are bound in between frames
+			bindNs = System.nanoTime() - start;
+			mAverageBindNs = mAverageBindNs == 0 ? bindNs
+					: (mAverageBindNs * 3 + bindNs) / 4;
+		}
+		FlipTrace.endSection();
+		return bindNs;
+	}
+
+	/**
+	 * Give a page a placeholder view instead of binding it, it is bound by
+	 * the prefetcher in between the following frames.
+	 * 
+	 * @param p
+	 * @param i
+	 */
+	private void fillPlaceholderForIndex(Page p, int i) {
+		p.position = i;
+		p.changed = false;
+		p.viewType = mAdapter.getItemViewType(p.position);
+		p.id = mAdapter.getItemId(p.position);
+		p.v = getPlaceholderView(p, i);
+		p.widthMeasureSpec = NOT_MEASURED;
+		p.heightMeasureSpec = NOT_MEASURED;
+		p.pending = true;
+		p.valid = true;
+		mPrefetcher.schedule(0);
+	}
+
+	/**
+	 * 
+	 * @param p
+	 *            the page the placeholder is for, remembers where it came from
+	 * @param position
+	 * @return the adapter's placeholder for position, or a view in the
+	 *         placeholder color if it has none
+	 */
+	private View getPlaceholderView(Page p, int position) {
+		if (mAdapter instanceof PlaceholderAdapter) {
+			final View convertView = removeLast(mFreeAdapterPlaceholderViews);
+			final View v = ((PlaceholderAdapter) mAdapter).getPlaceholderView(
+					position, convertView, this);
+			if (v != null) {
+				p.adapterPlaceholder = true;
+				return v;
+			}
+			if (convertView != null) {
+				mFreeAdapterPlaceholderViews.add(convertView);
+			}
+		}
+		p.adapterPlaceholder = false;
+		View v = removeLast(mFreePlaceholderViews);
+		if (v == null) {
+			v = new View(getContext());
+		}
+		v.setBackgroundColor(mPlaceholderPaint.getColor());
+		return v;
+	}
+
+	/**
+	 * Keep a placeholder view which is no longer shown for reuse.
+	 * 
+	 * @param p
+	 *            the page which showed it
+	 * @param v
+	 */
+	private void releasePlaceholderView(Page p, View v) {
+		if (p.adapterPlaceholder) {
+			mFreeAdapterPlaceholderViews.add(v);
+		} else {
+			mFreePlaceholderViews.add(v);
+		}
+	}
+
+	private static View removeLast(ArrayList<View> views) {
+		return views.isEmpty() ? null : views.remove(views.size() - 1);
+	}
+
+	/**
+	 * Make the view of a newly bound page a child without requesting a
+	 * layout, the page is measured and laid out on its own.
+	 * 
+	 * @param p
+	 * @param attach
+	 *            false to detach it again right away, it is then only attached
+	 *            to the window
+	 */
+	private void addPageView(Page p, boolean attach) {
+		addViewInLayout(p.v, -1, getPageLayoutParams(p.v), true);
+		p.attached = true;
+		if (!attach) {
+			detachPage(p);
+		}
+	}
+
+	private LayoutParams getPageLayoutParams(View v) {
+		final LayoutParams params = v.getLayoutParams();
+		return params != null ? params : generateDefaultLayoutParams();
+	}
+
+	/**
+	 * Remove a view which was bound to a page from the FlipView and the
+	 * window, without requesting a layout.
+	 * 
+	 * @param p
+	 * @param v
+	 *            the view of p, or the view it was bound to before
+	 */
+	private void removePageView(Page p, View v) {
+		if (p.attached) {
+			removeViewInLayout(v);
+		} else {
+			removeDetachedView(v, false);
+		}
+		p.attached = false;
+	}
+
+	/**
+	 * Make a page a child again so it can be drawn and receive touches, pages
+	 * which requested a layout while detached are laid out right away.
+	 * 
+	 * @param p
+	 */
+	private void attachPage(Page p) {
+		if (!p.valid || p.attached) {
+			return;
+		}
+		attachViewToParent(p.v, -1, getPageLayoutParams(p.v));
+		p.attached = true;
+		if (p.v.isLayoutRequested()) {
+			measureAndLayoutPage(p);
+		}
+	}
+
+	/**
+	 * Detach a page from the FlipView while keeping it attached to the
+	 * window, neither requests a layout.
+	 * 
+	 * @param p
+	 */
+	private void detachPage(Page p) {
+		if (!p.valid || !p.attached) {
+			return;
+		}
+		if (p.v.hasFocus()) {
+			p.v.clearFocus();
+		}
+		detachViewFromParent(p.v);
+		p.attached = false;
+	}
+
+	private void recyclePage(Page p) {
+		releaseSnapshot(p);
+		removePageView(p, p.v);
+		if (p.pending) {
+			releasePlaceholderView(p, p.v);
+			p.pending = false;
+		} else {
+			mRecycler.addScrapView(p.v, p.position, p.viewType);
+		}
+		p.valid = false;
+	}
+
+	private void recycleActiveViews() {
+		FlipTrace.beginSection(FlipTrace.RECYCLE_ACTIVE_VIEWS);
+		mPrefetcher.cancel();
+		abortJump();
+
+		// remove and recycle the currently active views
+		for (Page p : mActivePages) {
+			if (p.valid) {
+				recyclePage(p);
+			}
+		}
+		mPreviousPage = mEmptyPage;
+		mCurrentPage = mEmptyPage;
+		mNextPage = mEmptyPage;
+		FlipTrace.endSection();
+	}
+
+	private View getView(int index, int viewType) {
+		// get the scrap from the recycler corresponding to the correct view
+		// type
+		Scrap<View> scrap = mRecycler.getScrapView(index, viewType);
+
+		// get a view from the adapter if a scrap was not found or it is
+		// invalid.
+		FlipTrace.beginSection(FlipTrace.GET_VIEW);
+		View v = null;
+		if (mMetrics != null) {
+			v = getViewMeasured(index, scrap);
+		} else if (scrap == null || !scrap.valid) {
+			v = mAdapter.getView(index, scrap == null ? null : scrap.v, this);
+		} else {
+			v = scrap.v;
+		}
+		FlipTrace.endSection();
+
+		// return view
+		return v;
+	}
+
+	/**
+	 * Same as getView but records metrics
+	 */
+	private View getViewMeasured(int index, Scrap<View> scrap) {
+		if (scrap == null) {
+			mMetrics.recordScrapMiss();
+			final long start = System.nanoTime();
+			final View v = mAdapter.getView(index, null, this);
+			mMetrics.recordNewView(System.nanoTime() - start);
+			return v;
+		}
+		mMetrics.recordScrapHit();
+		if (scrap.valid) {
+			return scrap.v;
+		}
+		return convertView(index, scrap.v);
+	}
+
+	/**
+	 * Bind a view through the adapter, recording metrics if they are enabled
+	 * 
+	 * @param index
+	 * @param convertView
+	 *            the view to rebind
+	 * @return the view returned by the adapter
+	 */
+	private View convertView(int index, View convertView) {
+		if (mMetrics == null) {
+			return mAdapter.getView(index, convertView, this);
+		}
+		final long start = System.nanoTime();
+		final View v = mAdapter.getView(index, convertView, this);
+		mMetrics.recordConvertView(System.nanoTime() - start);
+		return v;
+	}
+
+	@Override
+	public boolean onInterceptTouchEvent(MotionEvent ev) {
+
+		if (!mIsFlippingEnabled) {
+			return false;
+		}
+
+		if (mPageCount < 1) {
+			return false;
+		}
+
+		final int action = ev.getAction() & MotionEvent.ACTION_MASK;
+
+		if (action == MotionEvent.ACTION_CANCEL
+				|| action == MotionEvent.ACTION_UP) {
+			mIsFlipping = false;
+			mIsUnableToFlip = false;
+			mActivePointerId = INVALID_POINTER;
+			if (mVelocityTracker != null) {
+				mVelocityTracker.recycle();
+				mVelocityTracker = null;
+			}
+			return false;
+		}
+
+		if (action != MotionEvent.ACTION_DOWN) {
+			if (mIsFlipping) {
+				return true;
+			} else if (mIsUnableToFlip) {
+				return false;
 			}
 		}
 
@@ -494,7 +1521,7 @@ public class FlipView extends FrameLayout {
 			mLastX = MotionEventCompat.getX(ev, mActivePointerId);
 			mLastY = MotionEventCompat.getY(ev, mActivePointerId);
 
-			mIsFlipping = !mScroller.isFinished() | mPeakAnim != null;
+			mIsFlipping = mAnimator.isSettling() | mAnimator.isPeaking();
 			mIsUnableToFlip = false;
 			mLastTouchAllowed = true;
 
@@ -550,6 +1577,8 @@ public class FlipView extends FrameLayout {
 			mLastX = ev.getX();
 			mLastY = ev.getY();
 			mActivePointerId = MotionEventCompat.getPointerId(ev, 0);
+			mPendingTouchDelta = 0;
+			mTouchPrediction = 0;
 			break;
 		case MotionEvent.ACTION_MOVE:
 			if (!mIsFlipping) {
@@ -585,48 +1614,19 @@ public class FlipView extends FrameLayout {
 				mLastX = x;
 				mLastY = y;
 
-				float deltaFlipDistance = 0;
-				if (mIsFlippingVertically) {
-					deltaFlipDistance = deltaY;
-				} else {
-					deltaFlipDistance = deltaX;
-				}
-
-				deltaFlipDistance /= ((isFlippingVertically() ? getHeight()
-						: getWidth()) / FLIP_DISTANCE_PER_PAGE);
-				setFlipDistance(mFlipDistance + deltaFlipDistance);
-
-				final int minFlipDistance = 0;
-				final int maxFlipDistance = (mPageCount - 1)
-						* FLIP_DISTANCE_PER_PAGE;
-				final boolean isOverFlipping = mFlipDistance < minFlipDistance
-						|| mFlipDistance > maxFlipDistance;
-				if (isOverFlipping) {
-					mIsOverFlipping = true;
-					setFlipDistance(mOverFlipper.calculate(mFlipDistance,
-							minFlipDistance, maxFlipDistance));
-					if (mOnOverFlipListener != null) {
-						float overFlip = mOverFlipper.getTotalOverFlip();
-						mOnOverFlipListener.onOverFlip(this, mOverFlipMode,
-								overFlip < 0, Math.abs(overFlip),
-								FLIP_DISTANCE_PER_PAGE);
-					}
-				} else if (mIsOverFlipping) {
-					mIsOverFlipping = false;
-					if (mOnOverFlipListener != null) {
-						// TODO in the future should only notify flip distance 0
-						// on the correct edge (previous/next)
-						mOnOverFlipListener.onOverFlip(this, mOverFlipMode,
-								false, 0, FLIP_DISTANCE_PER_PAGE);
-						mOnOverFlipListener.onOverFlip(this, mOverFlipMode,
-								true, 0, FLIP_DISTANCE_PER_PAGE);
-					}
-				}
+				// applied once per frame, high rate touch panels deliver
+				// several moves in between
+				mPendingTouchDelta += mIsFlippingVertically ? deltaY : deltaX;
+				mLastTouchEventTime = ev.getEventTime();
+				postTouchFrame();
 			}
 			break;
 		case MotionEvent.ACTION_UP:
 		case MotionEvent.ACTION_CANCEL:
 			if (mIsFlipping) {
+				// settle from where the finger actually is
+				applyTouchMoves(false);
+
 				final VelocityTracker velocityTracker = mVelocityTracker;
 				velocityTracker.computeCurrentVelocity(1000, mMaximumVelocity);
 
@@ -638,7 +1638,14 @@ public class FlipView extends FrameLayout {
 					velocity = (int) VelocityTrackerCompat.getXVelocity(
 							velocityTracker, mActivePointerId);
 				}
-				smoothFlipTo(getNextPage(velocity));
+				if (mIsMomentumFlingEnabled) {
+					// a long fling jumps even without a jump threshold, only
+					// pages beyond the window would have to be bound
+					smoothFlipTo(getFlingPage(velocity),
+							Math.min(mJumpThreshold, mOffscreenPageLimit));
+				} else {
+					smoothFlipTo(getNextPage(velocity));
+				}
 
 				mActivePointerId = INVALID_POINTER;
 				endFlip();
@@ -671,6 +1678,96 @@ public class FlipView extends FrameLayout {
 		return true;
 	}
 
+	private void postTouchFrame() {
+		if (!mTouchFramePosted) {
+			mTouchFramePosted = true;
+			ViewCompat.postOnAnimation(this, mTouchFrameRunnable);
+		}
+	}
+
+	/**
+	 * Apply the touch moves since the last frame as a single change of the
+	 * flip distance.
+	 * 
+	 * @param predict
+	 *            true to extrapolate the touch to when the frame is shown, if
+	 *            prediction is enabled
+	 */
+	private void applyTouchMoves(boolean predict) {
+		if (mTouchFramePosted) {
+			mTouchFramePosted = false;
+			removeCallbacks(mTouchFrameRunnable);
+		}
+
+		final int size = isFlippingVertically() ? getHeight() : getWidth();
+		// the previous prediction is replaced, never accumulated
+		final float touchFlipDistance = mFlipDistance - mTouchPrediction
+				+ FlipMath.getFlipDistanceForPixels(mPendingTouchDelta, size);
+		mPendingTouchDelta = 0;
+		mTouchPrediction = 0;
+
+		final int minFlipDistance = 0;
+		final int maxFlipDistance = (mPageCount - 1) * FLIP_DISTANCE_PER_PAGE;
+		if (predict && mIsTouchPredictionEnabled && !mIsOverFlipping) {
+			final float prediction = FlipMath.getFlipDistanceForPixels(
+					getPredictedTouchDelta(), size);
+			// predicting into an over flip would bounce back, don't
+			if (touchFlipDistance + prediction >= minFlipDistance
+					&& touchFlipDistance + prediction <= maxFlipDistance) {
+				mTouchPrediction = prediction;
+			}
+		}
+		setFlipDistance(touchFlipDistance + mTouchPrediction);
+
+		final boolean isOverFlipping = mFlipDistance < minFlipDistance
+				|| mFlipDistance > maxFlipDistance;
+		if (isOverFlipping) {
+			mIsOverFlipping = true;
+			setFlipDistance(mOverFlipper.calculate(mFlipDistance,
+					minFlipDistance, maxFlipDistance));
+			if (mOnOverFlipListener != null) {
+				float overFlip = mOverFlipper.getTotalOverFlip();
+				mOnOverFlipListener.onOverFlip(this, mOverFlipMode,
+						overFlip < 0, Math.abs(overFlip),
+						FLIP_DISTANCE_PER_PAGE);
+			}
+		} else if (mIsOverFlipping) {
+			mIsOverFlipping = false;
+			if (mOnOverFlipListener != null) {
+				// TODO in the future should only notify flip distance 0
+				// on the correct edge (previous/next)
+				mOnOverFlipListener.onOverFlip(this, mOverFlipMode,
+						false, 0, FLIP_DISTANCE_PER_PAGE);
+				mOnOverFlipListener.onOverFlip(this, mOverFlipMode,
+						true, 0, FLIP_DISTANCE_PER_PAGE);
+			}
+		}
+	}
+
+	/**
+	 * 
+	 * @return the pixels the touch is expected to move, in the flip direction,
+	 *         between the last touch event and the next frame being shown
+	 */
+	private float getPredictedTouchDelta() {
+		if (mVelocityTracker == null || mActivePointerId == INVALID_POINTER) {
+			return 0;
+		}
+		mVelocityTracker.computeCurrentVelocity(1000, mMaximumVelocity);
+		final float velocity = isFlippingVertically() ? VelocityTrackerCompat
+				.getYVelocity(mVelocityTracker, mActivePointerId)
+				: VelocityTrackerCompat.getXVelocity(mVelocityTracker,
+						mActivePointerId);
+		final long frameIntervalMs = mPrefetcher.getFrameInterval()
+				/ NANOS_PER_MILLI;
+		final long aheadMs = Math.min(SystemClock.uptimeMillis()
+				- mLastTouchEventTime + frameIntervalMs,
+				MAX_TOUCH_PREDICTION_FRAMES * frameIntervalMs);
+		// velocity is positive towards the bottom/right which is a flip
+		// towards the previous page
+		return -velocity * Math.max(aheadMs, 0) / 1000f;
+	}
+
 	@Override
 	protected void dispatchDraw(Canvas canvas) {
 
@@ -678,19 +1775,37 @@ public class FlipView extends FrameLayout {
 			return;
 		}
 
-		if (!mScroller.isFinished() && mScroller.computeScrollOffset()) {
-			setFlipDistance(mScroller.getCurrY());
+		if (mMetrics != null) {
+			mMetrics.onDrawStarted();
+			final long start = System.nanoTime();
+			drawPages(canvas);
+			onMetricsFrameFinished(System.nanoTime() - start);
+		} else {
+			drawPages(canvas);
 		}
+	}
 
-		if (mIsFlipping || !mScroller.isFinished() || mPeakAnim != null) {
-			showAllPages();
+	private void drawPages(Canvas canvas) {
+
+		final boolean isFlipping = mIsFlipping || mAnimator.isSettling()
+				|| mAnimator.isPeaking();
+		if (isFlipping) {
+			attachFlipPages();
+			updateFlipMatrix();
+			FlipTrace.beginSection(FlipTrace.DRAW_PREVIOUS_HALF);
 			drawPreviousHalf(canvas);
+			FlipTrace.endSection();
+			FlipTrace.beginSection(FlipTrace.DRAW_NEXT_HALF);
 			drawNextHalf(canvas);
+			FlipTrace.endSection();
+			FlipTrace.beginSection(FlipTrace.DRAW_FLIPPING_HALF);
 			drawFlippingHalf(canvas);
+			FlipTrace.endSection();
 		} else {
 			endScroll();
+			releaseSnapshots();
 			setDrawWithLayer(mCurrentPage.v, false);
-			hideOtherPages(mCurrentPage);
+			attachOnlyPage(mCurrentPage);
 			drawChild(canvas, mCurrentPage.v, 0);
 
 			// dispatch listener event now that we have "landed" on a page.
@@ -704,37 +1819,44 @@ public class FlipView extends FrameLayout {
 
 		// if overflip is GLOW mode and the edge effects needed drawing, make
 		// sure to invalidate
-		if (mOverFlipper.draw(canvas)) {
-			// always invalidate whole screen as it is needed 99% of the time.
-			// This is because of the shadows and shines put on the non-flipping
-			// pages
-			invalidate();
+		FlipTrace.beginSection(FlipTrace.DRAW_OVER_FLIP);
+		final boolean overFlipAnimating = mOverFlipper.draw(canvas);
+		FlipTrace.endSection();
+		if (overFlipAnimating) {
+			if (isFlipping) {
+				// the shadows and shines put on the non-flipping pages change
+				// with every frame of a flip, so everything is redrawn
+				invalidate();
+			} else if (mOverFlipper instanceof DirtyRectOverFlipper) {
+				// only the edge effects are animating over a settled page
+				((DirtyRectOverFlipper) mOverFlipper)
+						.getDirtyRect(mOverFlipDirtyRect);
+				invalidate(mOverFlipDirtyRect);
+			} else {
+				invalidate();
+			}
 		}
 	}
 
-	private void hideOtherPages(Page p) {
-		if (mPreviousPage != p && mPreviousPage.valid && mPreviousPage.v.getVisibility() != GONE) {
-			mPreviousPage.v.setVisibility(GONE);
-		}
-		if (mCurrentPage != p && mCurrentPage.valid && mCurrentPage.v.getVisibility() != GONE) {
-			mCurrentPage.v.setVisibility(GONE);
-		}
-		if (mNextPage != p && mNextPage.valid && mNextPage.v.getVisibility() != GONE) {
-			mNextPage.v.setVisibility(GONE);
+	/**
+	 * Keep only the settled page attached, so it is the only page receiving
+	 * touches, focus and accessibility.
+	 * 
+	 * @param p
+	 */
+	private void attachOnlyPage(Page p) {
+		for (Page other : mActivePages) {
+			if (other != p) {
+				detachPage(other);
+			}
 		}
-		p.v.setVisibility(VISIBLE);
+		attachPage(p);
 	}
 
-	private void showAllPages() {
-		if (mPreviousPage.valid && mPreviousPage.v.getVisibility() != VISIBLE) {
-			mPreviousPage.v.setVisibility(VISIBLE);
-		}
-		if (mCurrentPage.valid && mCurrentPage.v.getVisibility() != VISIBLE) {
-			mCurrentPage.v.setVisibility(VISIBLE);
-		}
-		if (mNextPage.valid && mNextPage.v.getVisibility() != VISIBLE) {
-			mNextPage.v.setVisibility(VISIBLE);
-		}
+	private void attachFlipPages() {
+		attachPage(mPreviousPage);
+		attachPage(mCurrentPage);
+		attachPage(mNextPage);
 	}
 
 	/**
@@ -749,32 +1871,21 @@ public class FlipView extends FrameLayout {
 		final float degreesFlipped = getDegreesFlipped();
 		final Page p = degreesFlipped > 90 ? mPreviousPage : mCurrentPage;
 
-		// if the view does not exist, skip drawing it
-		if (p.valid) {
-			setDrawWithLayer(p.v, true);
-			drawChild(canvas, p.v, 0);
+		// if the view does not exist or is hidden by the flipping page, skip
+		// drawing it
+		if ((p.valid || p.placeholder)
+				&& !(degreesFlipped > 90 && isStaticHalfOccluded())) {
+			drawPage(canvas, p);
 		}
 
-		drawPreviousShadow(canvas);
+		if (degreesFlipped > 90) {
+			mShadowRenderer.drawShadow(canvas, degreesFlipped);
+		}
 		canvas.restore();
 	}
 
 	/**
-	 * draw top/left half shadow
-	 * 
-	 * @param canvas
-	 */
-	private void drawPreviousShadow(Canvas canvas) {
-		final float degreesFlipped = getDegreesFlipped();
-		if (degreesFlipped > 90) {
-			final int alpha = (int) (((degreesFlipped - 90) / 90f) * MAX_SHADOW_ALPHA);
-			mShadowPaint.setAlpha(alpha);
-			canvas.drawPaint(mShadowPaint);
-		}
-	}
-
-	/**
-	 * draw bottom/right half
+	 * draw bottom/right half
 	 * 
 	 * @param canvas
 	 */
@@ -785,84 +1896,198 @@ public class FlipView extends FrameLayout {
 		final float degreesFlipped = getDegreesFlipped();
 		final Page p = degreesFlipped > 90 ? mCurrentPage : mNextPage;
 
-		// if the view does not exist, skip drawing it
-		if (p.valid) {
-			setDrawWithLayer(p.v, true);
-			drawChild(canvas, p.v, 0);
+		// if the view does not exist or is hidden by the flipping page, skip
+		// drawing it
+		if ((p.valid || p.placeholder)
+				&& !(degreesFlipped < 90 && isStaticHalfOccluded())) {
+			drawPage(canvas, p);
 		}
 
-		drawNextShadow(canvas);
+		if (degreesFlipped < 90) {
+			mShadowRenderer.drawShadow(canvas, degreesFlipped);
+		}
 		canvas.restore();
 	}
 
 	/**
-	 * draw bottom/right half shadow
-	 * 
-	 * @param canvas
+	 * Look up the transform of the flipping half for this frame and find the
+	 * area it covers, the static halves are shadowed around it.
 	 */
-	private void drawNextShadow(Canvas canvas) {
-		final float degreesFlipped = getDegreesFlipped();
-		if (degreesFlipped < 90) {
-			final int alpha = (int) ((Math.abs(degreesFlipped - 90) / 90f) * MAX_SHADOW_ALPHA);
-			mShadowPaint.setAlpha(alpha);
-			canvas.drawPaint(mShadowPaint);
-		}
-	}
-
-	private void drawFlippingHalf(Canvas canvas) {
-		canvas.save();
-		mCamera.save();
-		
+	private void updateFlipMatrix() {
 		final float degreesFlipped = getDegreesFlipped();
 
+		float cameraDegrees;
 		if (degreesFlipped > 90) {
-			canvas.clipRect(isFlippingVertically() ? mTopRect : mLeftRect);
 			if (mIsFlippingVertically) {
-				mCamera.rotateX(degreesFlipped - 180);
+				cameraDegrees = degreesFlipped - 180;
 			} else {
-				mCamera.rotateY(180 - degreesFlipped);
+				cameraDegrees = 180 - degreesFlipped;
 			}
 		} else {
-			canvas.clipRect(isFlippingVertically() ? mBottomRect : mRightRect);
 			if (mIsFlippingVertically) {
-				mCamera.rotateX(degreesFlipped);
+				cameraDegrees = degreesFlipped;
 			} else {
-				mCamera.rotateY(-degreesFlipped);
+				cameraDegrees = -degreesFlipped;
 			}
 		}
 
-		mCamera.getMatrix(mMatrix);
+		mFlipMatrices.getMatrix(cameraDegrees, mMatrixValues);
+		mMatrix.setValues(mMatrixValues);
+		mFlipCoverage.update(degreesFlipped, mMatrixValues);
+		mShadowRenderer.update(mFlipCoverage);
+	}
 
-		positionMatrix();
-		canvas.concat(mMatrix);
+	/**
+	 * 
+	 * @return true if the flipping page hides all of the static half it is
+	 *         flipping over
+	 */
+	private boolean isStaticHalfOccluded() {
+		if (!mFlipCoverage.isStaticHalfCovered()) {
+			return false;
+		}
+		if (mCurrentPage.placeholder) {
+			return mCurrentPage.snapshot == null
+					&& Color.alpha(mPlaceholderPaint.getColor()) == 255;
+		}
+		return mCurrentPage.valid && mCurrentPage.v.isOpaque();
+	}
+
+	private void drawFlippingHalf(Canvas canvas) {
+		final float degreesFlipped = getDegreesFlipped();
+		if (degreesFlipped == 90) {
+			// the page is seen edge on
+			return;
+		}
 
-		setDrawWithLayer(mCurrentPage.v, true);
-		drawChild(canvas, mCurrentPage.v, 0);
+		canvas.save();
 
-		drawFlippingShadeShine(canvas);
+		final Rect half;
+		if (degreesFlipped > 90) {
+			half = isFlippingVertically() ? mTopRect : mLeftRect;
+		} else {
+			half = isFlippingVertically() ? mBottomRect : mRightRect;
+		}
+		canvas.clipRect(half);
+		canvas.concat(mMatrix);
+
+		// snapshots are shaded while they are drawn, views need another pass
+		final ColorFilter shadeShine = mIsSnapshotFlipEnabled ? mShadowRenderer
+				.getShadeShineFilter(degreesFlipped) : null;
+		if (!drawPage(canvas, mCurrentPage, shadeShine)) {
+			mShadowRenderer.drawShadeShine(canvas, degreesFlipped, half);
+		}
 
-		mCamera.restore();
 		canvas.restore();
 	}
 
 	/**
-	 * will draw a shade if flipping on the previous(top/left) half and a shine
-	 * if flipping on the next(bottom/right) half
+	 * Draw a page taking part in a flip, either from its snapshot or from its
+	 * view.
 	 * 
 	 * @param canvas
+	 * @param p
 	 */
-	private void drawFlippingShadeShine(Canvas canvas) {
-		final float degreesFlipped = getDegreesFlipped();
-		if (degreesFlipped < 90) {
-			final int alpha = (int) ((degreesFlipped / 90f) * MAX_SHINE_ALPHA);
-			mShinePaint.setAlpha(alpha);
-			canvas.drawRect(isFlippingVertically() ? mBottomRect : mRightRect,
-					mShinePaint);
-		} else {
-			final int alpha = (int) ((Math.abs(degreesFlipped - 180) / 90f) * MAX_SHADE_ALPHA);
-			mShadePaint.setAlpha(alpha);
-			canvas.drawRect(isFlippingVertically() ? mTopRect : mLeftRect,
-					mShadePaint);
+	private void drawPage(Canvas canvas, Page p) {
+		drawPage(canvas, p, null);
+	}
+
+	/**
+	 * 
+	 * @param canvas
+	 * @param p
+	 * @param filter
+	 *            applied if the page is drawn from its snapshot, may be null
+	 * @return true if the page was drawn from its snapshot
+	 */
+	private boolean drawPage(Canvas canvas, Page p, ColorFilter filter) {
+		if (mMetrics != null) {
+			mMetrics.recordPageDraw();
+		}
+		if (p.placeholder) {
+			return drawPlaceholder(canvas, p, filter);
+		}
+		if (mIsSnapshotFlipEnabled) {
+			// rasterize the page once per flip, unless it was flipped recently
+			if (p.snapshot == null && mSnapshotCache != null) {
+				p.snapshot = mSnapshotCache.take(p.id);
+			}
+			// never keep a snapshot of a placeholder, it would be cached as
+			// the item
+			if (p.snapshot == null && !p.pending) {
+				p.snapshot = mSnapshotRenderer.capture(p.v);
+			}
+			if (p.snapshot != null) {
+				mSnapshotRenderer.draw(canvas, p.snapshot, filter);
+				return true;
+			}
+		}
+		setDrawWithLayer(p.v, true);
+		drawChild(canvas, p.v, 0);
+		return false;
+	}
+
+	/**
+	 * Draw a page which is not bound during a jump, from the cached snapshot
+	 * of its item if there is one and otherwise as a plain placeholder.
+	 * 
+	 * @param canvas
+	 * @param p
+	 * @param filter
+	 * @return true if the page was drawn from a snapshot
+	 */
+	private boolean drawPlaceholder(Canvas canvas, Page p, ColorFilter filter) {
+		if (p.snapshot == null && mSnapshotCache != null) {
+			p.snapshot = mSnapshotCache.take(p.id);
+		}
+		if (p.snapshot != null) {
+			mSnapshotRenderer.draw(canvas, p.snapshot, filter);
+			return true;
+		}
+		canvas.drawRect(0, 0, getWidth(), getHeight(), mPlaceholderPaint);
+		return false;
+	}
+
+	/**
+	 * Give up the snapshot of a page, keeping it in the snapshot cache if
+	 * there is one.
+	 * 
+	 * @param p
+	 */
+	private void releaseSnapshot(Page p) {
+		if (p.snapshot != null) {
+			if (mSnapshotCache != null && mAdapter != null
+					&& mAdapter.hasStableIds()) {
+				mSnapshotCache.put(p.id, p.snapshot);
+			} else {
+				mSnapshotRenderer.release(p.snapshot);
+			}
+			p.snapshot = null;
+		}
+	}
+
+	/**
+	 * Give up the snapshot of a page without caching it, for when its
+	 * contents are outdated.
+	 * 
+	 * @param p
+	 */
+	private void dropSnapshot(Page p) {
+		if (p.snapshot != null) {
+			mSnapshotRenderer.release(p.snapshot);
+			p.snapshot = null;
+		}
+	}
+
+	private void releaseSnapshots() {
+		for (Page p : mActivePages) {
+			releaseSnapshot(p);
+		}
+	}
+
+	private void evictSnapshotCache() {
+		if (mSnapshotCache != null) {
+			mSnapshotCache.evictAll();
 		}
 	}
 
@@ -876,6 +2101,9 @@ public class FlipView extends FrameLayout {
 		if (isHardwareAccelerated()) {
 			if (v.getLayerType() != LAYER_TYPE_HARDWARE && drawWithLayer) {
 				v.setLayerType(LAYER_TYPE_HARDWARE, null);
+				if (mMetrics != null) {
+					mMetrics.recordLayerBuild();
+				}
 			} else if (v.getLayerType() != LAYER_TYPE_NONE && !drawWithLayer) {
 				v.setLayerType(LAYER_TYPE_NONE, null);
 			}
@@ -890,27 +2118,27 @@ public class FlipView extends FrameLayout {
 	}
 
 	private float getDegreesFlipped() {
-		float localFlipDistance = mFlipDistance % FLIP_DISTANCE_PER_PAGE;
-
-		// fix for negative modulo. always want a positive flip degree
-		if (localFlipDistance < 0) {
-			localFlipDistance += FLIP_DISTANCE_PER_PAGE;
-		}
-
-		return (localFlipDistance / FLIP_DISTANCE_PER_PAGE) * 180;
+		return FlipMath.getDegreesFlipped(mIsJumping ? mJumpFlipDistance
+				: mFlipDistance);
 	}
 
-	private void postFlippedToPage(final int page) {
-		post(new Runnable() {
+	private void postFlippedToPage(int page) {
+		// only the latest page is of interest if the previous event has not
+		// been dispatched yet
+		mFlippedToPageEvent.page = page;
+		removeCallbacks(mFlippedToPageEvent);
+		post(mFlippedToPageEvent);
+	}
 
-			@Override
-			public void run() {
-				if (mOnFlipListener != null) {
-					mOnFlipListener.onFlippedToPage(FlipView.this, page,
-							mAdapter.getItemId(page));
-				}
-			}
-		});
+	private void onMetricsFrameFinished(long drawNs) {
+		mMetrics.recordOverlayPixels(mShadowRenderer.takePixelsFilled());
+		mMetrics.onDrawFinished(drawNs, mPrefetcher.getFrameInterval());
+		if (mMetrics.getFrameCount() >= mMetricsBatchSize) {
+			mDeliveredMetrics.copyFrom(mMetrics);
+			mMetrics.reset();
+			removeCallbacks(mDeliverMetrics);
+			post(mDeliverMetrics);
+		}
 	}
 
 	private void onSecondaryPointerUp(MotionEvent ev) {
@@ -938,9 +2166,8 @@ public class FlipView extends FrameLayout {
 	 *         of deltaFlipDistance.
 	 */
 	private int getFlipDuration(int deltaFlipDistance) {
-		float distance = Math.abs(deltaFlipDistance);
-		return (int) (MAX_SINGLE_PAGE_FLIP_ANIM_DURATION * Math.sqrt(distance
-				/ FLIP_DISTANCE_PER_PAGE));
+		return FlipMath.getFlipDuration(deltaFlipDistance,
+				MAX_SINGLE_PAGE_FLIP_ANIM_DURATION);
 	}
 
 	/**
@@ -949,27 +2176,14 @@ public class FlipView extends FrameLayout {
 	 * @return the page you should "land" on
 	 */
 	private int getNextPage(int velocity) {
-		int nextPage;
-		if (velocity > mMinimumVelocity) {
-			nextPage = getCurrentPageFloor();
-		} else if (velocity < -mMinimumVelocity) {
-			nextPage = getCurrentPageCeil();
-		} else {
-			nextPage = getCurrentPageRound();
-		}
-		return Math.min(Math.max(nextPage, 0), mPageCount - 1);
+		return FlipMath.getNextPage(mFlipDistance, velocity, mMinimumVelocity,
+				mPageCount);
 	}
 
-	private int getCurrentPageRound() {
-		return Math.round(mFlipDistance / FLIP_DISTANCE_PER_PAGE);
-	}
-
-	private int getCurrentPageFloor() {
-		return (int) Math.floor(mFlipDistance / FLIP_DISTANCE_PER_PAGE);
-	}
-
-	private int getCurrentPageCeil() {
-		return (int) Math.ceil(mFlipDistance / FLIP_DISTANCE_PER_PAGE);
+	private int getFlingPage(int velocity) {
+		return FlipMath.getFlingPage(mFlipDistance, velocity,
+				mMinimumVelocity, isFlippingVertically() ? getHeight()
+						: getWidth(), mFlingFriction, mPageCount);
 	}
 
 	/**
@@ -994,58 +2208,172 @@ public class FlipView extends FrameLayout {
 	 * @return true if ended a scroll
 	 */
 	private boolean endScroll() {
-		final boolean wasScrolling = !mScroller.isFinished();
-		mScroller.abortAnimation();
+		final boolean wasScrolling = mAnimator.isSettling();
+		if (wasScrolling) {
+			mAnimator.cancel();
+		}
+		// an interrupted jump lands right away
+		completeJump();
 		return wasScrolling;
 	}
 
+	/**
+	 * Flip to a far away page through at most MAX_JUMP_FLIPS pages, all but
+	 * the destination are placeholders. Only the destination is bound so the
+	 * work done does not depend on how far the jump goes. With a bind budget
+	 * the destination starts out as a placeholder as well and is bound in
+	 * between the frames of the jump, so the jump never waits on the
+	 * adapter.
+	 * 
+	 * @param page
+	 */
+	private void jumpTo(int page) {
+		final int source = mCurrentPageIndex;
+		final int delta = page - source;
+		final int flips = Math.min(Math.abs(delta), MAX_JUMP_FLIPS);
+		final boolean forward = delta > 0;
+
+		if (mBindFrameBudgetNs > 0) {
+			fillPlaceholderForIndex(mJumpPage, page);
+		} else {
+			fillPageForIndex(mJumpPage, page);
+		}
+		addPageView(mJumpPage, true);
+		measureAndLayoutPage(mJumpPage);
+
+		// the jump pages are ordered like pages, so backwards jumps start at
+		// the end
+		mJumpPageCount = flips + 1;
+		for (int i = 0; i <= flips; i++) {
+			final Page p;
+			if (i == 0) {
+				p = mCurrentPage;
+			} else if (i == flips) {
+				p = mJumpPage;
+			} else {
+				// stands in for a page spread evenly along the way
+				p = mPlaceholderPages[i - 1];
+				p.position = source + delta * i / flips;
+				p.id = mAdapter.getItemId(p.position);
+			}
+			mJumpPages[forward ? i : flips - i] = p;
+		}
+
+		// continue from how far the current page is flipped
+		final float start = (forward ? 0 : flips * FLIP_DISTANCE_PER_PAGE)
+				+ mFlipDistance - source * FLIP_DISTANCE_PER_PAGE;
+		final float end = forward ? flips * FLIP_DISTANCE_PER_PAGE : 0;
+		mIsJumping = true;
+		// the neighbourhood of the destination is known, bind it while the
+		// jump is shown
+		mPrefetcher.schedule(forward ? 1 : -1);
+		setJumpFlipDistance(Math.min(Math.max(start, 0), flips
+				* FLIP_DISTANCE_PER_PAGE));
+		mAnimator.startSettle(mJumpFlipDistance, end,
+				getFlipDuration((int) (end - mJumpFlipDistance))
+						* NANOS_PER_MILLI);
+	}
+
+	private void setJumpFlipDistance(float jumpFlipDistance) {
+		mJumpFlipDistance = jumpFlipDistance;
+		final int index = Math.round(jumpFlipDistance / FLIP_DISTANCE_PER_PAGE);
+		mPreviousPage = getJumpPage(index - 1);
+		mCurrentPage = getJumpPage(index);
+		mNextPage = getJumpPage(index + 1);
+		invalidate();
+	}
+
+	private Page getJumpPage(int index) {
+		if (index < 0 || index >= mJumpPageCount) {
+			return mEmptyPage;
+		}
+		return mJumpPages[index];
+	}
+
+	/**
+	 * Land a jump on its destination, which joins the active pages in place
+	 * of the pages around the source.
+	 */
+	private void completeJump() {
+		if (!mIsJumping) {
+			return;
+		}
+		mIsJumping = false;
+		mAnimator.cancel();
+		releaseJumpPages();
+
+		final Page destination = mJumpPage;
+		final int slot = destination.position % mActivePages.length;
+		if (mActivePages[slot].valid) {
+			recyclePage(mActivePages[slot]);
+		}
+		mJumpPage = mActivePages[slot];
+		mActivePages[slot] = destination;
+		setFlipDistance(destination.position * FLIP_DISTANCE_PER_PAGE);
+	}
+
+	/**
+	 * Stop a jump without landing it, for when the pages are about to be
+	 * recycled.
+	 */
+	private void abortJump() {
+		if (!mIsJumping) {
+			return;
+		}
+		mIsJumping = false;
+		mAnimator.cancel();
+		releaseJumpPages();
+		if (mJumpPage.valid) {
+			recyclePage(mJumpPage);
+		}
+		mPreviousPage = getActivePage(mCurrentPageIndex - 1);
+		mCurrentPage = getActivePage(mCurrentPageIndex);
+		mNextPage = getActivePage(mCurrentPageIndex + 1);
+	}
+
+	private void releaseJumpPages() {
+		for (Page p : mPlaceholderPages) {
+			releaseSnapshot(p);
+		}
+		for (int i = 0; i < mJumpPages.length; i++) {
+			mJumpPages[i] = null;
+		}
+		mJumpPageCount = 0;
+	}
+
 	/**
 	 * 
 	 * @return true if ended a peak
 	 */
 	private boolean endPeak() {
-		final boolean wasPeaking = mPeakAnim != null;
-		if (mPeakAnim != null) {
-			mPeakAnim.cancel();
-			mPeakAnim = null;
+		final boolean wasPeaking = mAnimator.isPeaking();
+		if (wasPeaking) {
+			mAnimator.cancel();
 		}
 		return wasPeaking;
 	}
 
 	private void peak(boolean next, boolean once) {
+		endPeak();
+
 		final float baseFlipDistance = mCurrentPageIndex
 				* FLIP_DISTANCE_PER_PAGE;
+		final float peakFlipDistance;
 		if (next) {
-			mPeakAnim = ValueAnimator.ofFloat(baseFlipDistance,
-					baseFlipDistance + FLIP_DISTANCE_PER_PAGE / 4);
+			peakFlipDistance = baseFlipDistance + FLIP_DISTANCE_PER_PAGE / 4;
 		} else {
-			mPeakAnim = ValueAnimator.ofFloat(baseFlipDistance,
-					baseFlipDistance - FLIP_DISTANCE_PER_PAGE / 4);
+			peakFlipDistance = baseFlipDistance - FLIP_DISTANCE_PER_PAGE / 4;
 		}
-		mPeakAnim.setInterpolator(mPeakInterpolator);
-		mPeakAnim.addUpdateListener(new AnimatorUpdateListener() {
-
-			@Override
-			public void onAnimationUpdate(ValueAnimator animation) {
-				setFlipDistance((Float) animation.getAnimatedValue());
-			}
-		});
-		mPeakAnim.addListener(new AnimatorListenerAdapter() {
-			@Override
-			public void onAnimationEnd(Animator animation) {
-				endPeak();
-			}
-		});
-		mPeakAnim.setDuration(PEAK_ANIM_DURATION);
-		mPeakAnim.setRepeatMode(ValueAnimator.REVERSE);
-		mPeakAnim.setRepeatCount(once ? 1 : ValueAnimator.INFINITE);
-		mPeakAnim.start();
+		mAnimator.startPeak(baseFlipDistance, peakFlipDistance,
+				PEAK_ANIM_DURATION * NANOS_PER_MILLI, once);
+		invalidate();
 	}
 
 	private void trackVelocity(MotionEvent ev) {
 		if (mVelocityTracker == null) {
 			mVelocityTracker = VelocityTracker.obtain();
 		}
+		// also adds the historical samples batched into the event
 		mVelocityTracker.addMovement(ev);
 	}
 
@@ -1079,17 +2407,25 @@ public class FlipView extends FrameLayout {
 	 */
 	public void setAdapter(ListAdapter adapter) {
 		if (mAdapter != null) {
-			mAdapter.unregisterDataSetObserver(dataSetObserver);
+			unregisterObservers();
 		}
 
 		// remove all the current views
+		recycleActiveViews();
+		evictSnapshotCache();
 		removeAllViews();
+		// placeholders may have come from the old adapter
+		mFreeAdapterPlaceholderViews.clear();
 
 		mAdapter = adapter;
 		mPageCount = adapter == null ? 0 : mAdapter.getCount();
 
 		if (adapter != null) {
 			mAdapter.registerDataSetObserver(dataSetObserver);
+			if (mAdapter instanceof PageUpdateAdapter) {
+				((PageUpdateAdapter) mAdapter)
+						.registerPageUpdateObserver(pageUpdateObserver);
+			}
 
 			mRecycler.setViewTypeCount(mAdapter.getViewTypeCount());
 			mRecycler.invalidateScraps();
@@ -1104,6 +2440,14 @@ public class FlipView extends FrameLayout {
 		updateEmptyStatus();
 	}
 
+	private void unregisterObservers() {
+		mAdapter.unregisterDataSetObserver(dataSetObserver);
+		if (mAdapter instanceof PageUpdateAdapter) {
+			((PageUpdateAdapter) mAdapter)
+					.unregisterPageUpdateObserver(pageUpdateObserver);
+		}
+	}
+
 	public ListAdapter getAdapter() {
 		return mAdapter;
 	}
@@ -1121,6 +2465,7 @@ public class FlipView extends FrameLayout {
 			throw new IllegalArgumentException("That page does not exist");
 		}
 		endFlip();
+		completeJump();
 		setFlipDistance(page * FLIP_DISTANCE_PER_PAGE);
 	}
 
@@ -1132,11 +2477,29 @@ public class FlipView extends FrameLayout {
 		if (page < 0 || page > mPageCount - 1) {
 			throw new IllegalArgumentException("That page does not exist");
 		}
-		final int start = (int) mFlipDistance;
-		final int delta = page * FLIP_DISTANCE_PER_PAGE - start;
+		smoothFlipTo(page, mJumpThreshold);
+	}
 
+	/**
+	 * 
+	 * @param page
+	 * @param jumpThreshold
+	 *            how many pages away page may be before the flip jumps
+	 */
+	private void smoothFlipTo(int page, int jumpThreshold) {
+		endScroll();
 		endFlip();
-		mScroller.startScroll(0, start, 0, delta, getFlipDuration(delta));
+		endPeak();
+		if (Math.abs(page - mCurrentPageIndex) > jumpThreshold) {
+			jumpTo(page);
+			invalidate();
+			return;
+		}
+
+		final float start = mFlipDistance;
+		final float end = page * FLIP_DISTANCE_PER_PAGE;
+		mAnimator.startSettle(start, end, getFlipDuration((int) (end - start))
+				* NANOS_PER_MILLI);
 		invalidate();
 	}
 
@@ -1144,6 +2507,378 @@ public class FlipView extends FrameLayout {
 		smoothFlipTo(mCurrentPageIndex + delta);
 	}
 
+	/**
+	 * Set the number of pages that should be kept bound and measured on each
+	 * side of the current page. Pages outside of this window are recycled.
+	 * A larger limit means that a fast flip will not have to wait for the
+	 * adapter to create a page but it will keep more views in memory.
+	 * 
+	 * @param limit
+	 *            the number of pages to keep on each side of the current page,
+	 *            must be at least 1. Default is 1
+	 */
+	public void setOffscreenPageLimit(int limit) {
+		if (limit < 1) {
+			throw new IllegalArgumentException(
+					"Can't have an offscreen page limit < 1");
+		}
+		if (limit == mOffscreenPageLimit) {
+			return;
+		}
+		// land a jump in the ring it was started with, the ring is rebuilt
+		// for the new limit afterwards
+		completeJump();
+		mOffscreenPageLimit = limit;
+
+		// move the pages which are still within the window into the new ring,
+		// the rest are recycled
+		final Page[] oldPages = mActivePages;
+		mActivePages = new Page[limit * 2 + 1];
+		for (Page p : oldPages) {
+			if (!p.valid) {
+				continue;
+			}
+			if (Math.abs(p.position - mCurrentPageIndex) > limit) {
+				recyclePage(p);
+			} else {
+				mActivePages[p.position % mActivePages.length] = p;
+			}
+		}
+		for (int i = 0; i < mActivePages.length; i++) {
+			if (mActivePages[i] == null) {
+				mActivePages[i] = new Page();
+			}
+		}
+
+		if (mCurrentPageIndex != INVALID_PAGE_POSITION) {
+			bindAllActivePages();
+		}
+	}
+
+	/**
+	 * 
+	 * @return the number of pages kept bound on each side of the current page
+	 */
+	public int getOffscreenPageLimit() {
+		return mOffscreenPageLimit;
+	}
+
+	/**
+	 * Set how many pages away a smooth flip may go before it becomes a jump.
+	 * A jump flips through a few placeholder pages straight to the
+	 * destination instead of binding every page in between, so it costs the
+	 * same however far it goes. Placeholders are drawn from the snapshot
+	 * cache when it holds the page they stand in for.
+	 * 
+	 * @param pages
+	 *            defaults to Integer.MAX_VALUE, so smooth flips never jump
+	 */
+	public void setJumpThreshold(int pages) {
+		if (pages < 1) {
+			throw new IllegalArgumentException(
+					"Can't have a jump threshold < 1");
+		}
+		mJumpThreshold = pages;
+	}
+
+	/**
+	 * 
+	 * @return how many pages away a smooth flip may go before it jumps
+	 */
+	public int getJumpThreshold() {
+		return mJumpThreshold;
+	}
+
+	/**
+	 * Let a fling travel as many pages as its velocity carries it, instead of
+	 * only to the next page. Flings going further than the offscreen page
+	 * limit, or the jump threshold if it is lower, jump so only the landing
+	 * page and its neighbourhood are bound.
+	 * 
+	 * @param enabled
+	 *            defaults to false
+	 */
+	public void setMomentumFlingEnabled(boolean enabled) {
+		mIsMomentumFlingEnabled = enabled;
+	}
+
+	/**
+	 * 
+	 * @return true if flings travel as far as their velocity carries them
+	 */
+	public boolean isMomentumFlingEnabled() {
+		return mIsMomentumFlingEnabled;
+	}
+
+	/**
+	 * Set how fast momentum flings slow down. The velocity decays
+	 * exponentially, a fling travels its velocity divided by the friction.
+	 * 
+	 * @param friction
+	 *            the rate the velocity decays at per second, defaults to 2
+	 */
+	public void setFlingFriction(float friction) {
+		if (friction <= 0) {
+			throw new IllegalArgumentException(
+					"Can't have a fling friction <= 0");
+		}
+		mFlingFriction = friction;
+	}
+
+	/**
+	 * 
+	 * @return the rate momentum flings slow down at per second
+	 */
+	public float getFlingFriction() {
+		return mFlingFriction;
+	}
+
+	/**
+	 * Set the color of the placeholders shown for pages which are not bound,
+	 * such as the pages flipped through by a jump.
+	 * 
+	 * @param color
+	 *            defaults to white
+	 */
+	public void setPlaceholderColor(int color) {
+		mPlaceholderPaint.setColor(color);
+		invalidate();
+	}
+
+	/**
+	 * 
+	 * @return the color of the placeholders shown for pages which are not
+	 *         bound
+	 */
+	public int getPlaceholderColor() {
+		return mPlaceholderPaint.getColor();
+	}
+
+	/**
+	 * Set the time each frame may spend binding the pages needed to draw a
+	 * flip. A page which does not fit in the budget of a frame is shown as a
+	 * placeholder, from a PlaceholderAdapter or in the placeholder color, and
+	 * is bound in between the following frames. This keeps a slow getView
+	 * from stalling the flip. Only frames of a drag or of a settle are
+	 * budgeted, a flip without animation binds its pages right away. The
+	 * destination of a jump is always shown as a placeholder until it is
+	 * bound.
+	 * 
+	 * @param frameBudgetNs
+	 *            the budget in nanoseconds, 0 to always bind right away. Default
+	 *            is 0
+	 */
+	public void setBindFrameBudget(long frameBudgetNs) {
+		mBindFrameBudgetNs = Math.max(frameBudgetNs, 0);
+	}
+
+	/**
+	 * 
+	 * @return the time each frame may spend binding the pages needed to draw
+	 *         a flip, 0 if they are always bound right away
+	 */
+	public long getBindFrameBudget() {
+		return mBindFrameBudgetNs;
+	}
+
+	/**
+	 * Set the time each frame may spend binding offscreen pages ahead of time.
+	 * Only used when the offscreen page limit is larger than 1.
+	 * 
+	 * @param frameBudgetNs
+	 *            the budget in nanoseconds. Default is 4ms
+	 */
+	public void setPrefetchFrameBudget(long frameBudgetNs) {
+		mPrefetcher.setFrameBudget(frameBudgetNs);
+	}
+
+	/**
+	 * 
+	 * @return the number of times a page was already bound when it was needed
+	 *         for a flip
+	 */
+	public int getPrefetchHitCount() {
+		return mPrefetcher.getHitCount();
+	}
+
+	/**
+	 * 
+	 * @return the number of times a page had to be bound in the same frame as
+	 *         it was needed for a flip
+	 */
+	public int getPrefetchMissCount() {
+		return mPrefetcher.getMissCount();
+	}
+
+	/**
+	 * Reset the prefetch hit and miss counts to 0
+	 */
+	public void resetPrefetchCounts() {
+		mPrefetcher.resetCounts();
+	}
+
+	/**
+	 * Draw flips from bitmap snapshots of the pages. Each page taking part in
+	 * a flip is rasterized once when the flip starts and the live views are
+	 * drawn again once the flip has settled. This makes the cost of drawing a
+	 * flip independent of the complexity of the pages, at the cost of memory
+	 * for the bitmaps and of the pages not updating while flipping.
+	 * 
+	 * @param enabled
+	 */
+	public void setSnapshotFlipEnabled(boolean enabled) {
+		if (enabled == mIsSnapshotFlipEnabled) {
+			return;
+		}
+		mIsSnapshotFlipEnabled = enabled;
+		if (!enabled) {
+			releaseSnapshots();
+			evictSnapshotCache();
+			mSnapshotRenderer.clear();
+		}
+		invalidate();
+	}
+
+	/**
+	 * 
+	 * @return true if flips are drawn from bitmap snapshots of the pages
+	 */
+	public boolean isSnapshotFlipEnabled() {
+		return mIsSnapshotFlipEnabled;
+	}
+
+	/**
+	 * Keep the snapshots of recently flipped pages in memory so that flipping
+	 * back to them does not require drawing them again. Snapshots are keyed
+	 * by item id so this requires an adapter with stable ids, the cache is
+	 * cleared whenever the adapter notifies of a change. Only used in snapshot
+	 * mode.
+	 * 
+	 * @param maxBytes
+	 *            the maximum number of bytes the cached snapshots may use, 0
+	 *            disables the cache. Default is 0
+	 */
+	public void setSnapshotCacheMaxSize(int maxBytes) {
+		if (maxBytes < 0) {
+			throw new IllegalArgumentException(
+					"Can't have a snapshot cache size < 0");
+		}
+		evictSnapshotCache();
+		mSnapshotCache = maxBytes > 0 ? new SnapshotCache(maxBytes,
+				mSnapshotRenderer) : null;
+	}
+
+	/**
+	 * 
+	 * @return the number of bytes currently used by the snapshot cache
+	 */
+	public int getSnapshotCacheSize() {
+		return mSnapshotCache == null ? 0 : mSnapshotCache.size();
+	}
+
+	/**
+	 * Set the bitmap format of page snapshots, see {@link SnapshotConfig}.
+	 * 
+	 * @param config
+	 *            Default is ARGB_8888
+	 */
+	public void setSnapshotConfig(SnapshotConfig config) {
+		if (config == mSnapshotRenderer.getConfig()) {
+			return;
+		}
+		releaseSnapshots();
+		evictSnapshotCache();
+		mSnapshotRenderer.setConfig(config);
+		invalidate();
+	}
+
+	public SnapshotConfig getSnapshotConfig() {
+		return mSnapshotRenderer.getConfig();
+	}
+
+	/**
+	 * Set the maximum number of recycled views kept for a view type. When more
+	 * views than that are recycled the least recently recycled ones are
+	 * dropped. Default is 5.
+	 * 
+	 * @param viewType
+	 * @param max
+	 */
+	public void setMaxRecycledViews(int viewType, int max) {
+		mRecycler.setMaxScrap(viewType, max);
+	}
+
+	/**
+	 * Share recycled page views with other FlipViews. Views which do not fit
+	 * in this FlipView's own recycler are put in the pool and views are taken
+	 * from the pool when this FlipView has none of the needed view type. All
+	 * FlipViews sharing a pool must use the same view types for the same
+	 * kinds of views.
+	 * 
+	 * @param pool
+	 *            the pool to share, or null to stop sharing
+	 */
+	public void setRecycledViewPool(RecycledViewPool pool) {
+		mRecycler.setRecycledViewPool(pool);
+	}
+
+	public RecycledViewPool getRecycledViewPool() {
+		return mRecycler.getRecycledViewPool();
+	}
+
+	/**
+	 * Notify that itemCount items have been inserted at positionStart. Unlike
+	 * notifyDataSetChanged() on the adapter this keeps the pages which are
+	 * already bound, so call this instead of, not in addition to, notifying
+	 * the adapter's observers. The adapter must already reflect the change.
+	 * An adapter implementing PageUpdateAdapter reaches this through its
+	 * PageUpdateObserver, and also tells its other observers.
+	 * 
+	 * @param positionStart
+	 * @param itemCount
+	 */
+	public void notifyItemRangeInserted(int positionStart, int itemCount) {
+		applyPageUpdate(mPageUpdate.set(PageUpdate.ADD, positionStart,
+				itemCount, 0));
+	}
+
+	/**
+	 * Notify that itemCount items starting at positionStart have been removed.
+	 * See {@link #notifyItemRangeInserted(int, int)}.
+	 * 
+	 * @param positionStart
+	 * @param itemCount
+	 */
+	public void notifyItemRangeRemoved(int positionStart, int itemCount) {
+		applyPageUpdate(mPageUpdate.set(PageUpdate.REMOVE, positionStart,
+				itemCount, 0));
+	}
+
+	/**
+	 * Notify that the item at fromPosition has been moved to toPosition. See
+	 * {@link #notifyItemRangeInserted(int, int)}.
+	 * 
+	 * @param fromPosition
+	 * @param toPosition
+	 */
+	public void notifyItemMoved(int fromPosition, int toPosition) {
+		applyPageUpdate(mPageUpdate.set(PageUpdate.MOVE, fromPosition, 1,
+				toPosition));
+	}
+
+	/**
+	 * Notify that the contents of itemCount items starting at positionStart
+	 * have changed, only the affected pages are bound again. See
+	 * {@link #notifyItemRangeInserted(int, int)}.
+	 * 
+	 * @param positionStart
+	 * @param itemCount
+	 */
+	public void notifyItemRangeChanged(int positionStart, int itemCount) {
+		applyPageUpdate(mPageUpdate.set(PageUpdate.CHANGE, positionStart,
+				itemCount, 0));
+	}
+
 	/**
 	 * Hint that there is a next page will do nothing if there is no next page
 	 * 
@@ -1199,6 +2934,109 @@ public class FlipView extends FrameLayout {
 		this.mOnOverFlipListener = onOverFlipListener;
 	}
 
+	/**
+	 * Set how strong the shadows, shades and shines drawn while flipping
+	 * are. Lower intensities fill fewer pixels, at 0 no lighting is drawn at
+	 * all.
+	 * 
+	 * @param intensity
+	 *            from 0 to 1, defaults to 1
+	 */
+	public void setShadowIntensity(float intensity) {
+		if (intensity < 0) {
+			throw new IllegalArgumentException(
+					"Can't have a shadow intensity < 0");
+		}
+		if (intensity > 1) {
+			throw new IllegalArgumentException(
+					"Can't have a shadow intensity > 1");
+		}
+		mShadowRenderer.setIntensity(intensity);
+		invalidate();
+	}
+
+	public float getShadowIntensity() {
+		return mShadowRenderer.getIntensity();
+	}
+
+	/**
+	 * Extrapolate the touch to when the frame being drawn is shown, using the
+	 * velocity of the touch. This makes the page follow the finger more
+	 * closely at the cost of overshooting slightly when the touch stops
+	 * abruptly. Nothing is predicted while over flipping.
+	 * 
+	 * @param enabled
+	 *            defaults to false
+	 */
+	public void setTouchPredictionEnabled(boolean enabled) {
+		mIsTouchPredictionEnabled = enabled;
+	}
+
+	/**
+	 * 
+	 * @return true if touches are extrapolated to when frames are shown
+	 */
+	public boolean isTouchPredictionEnabled() {
+		return mIsTouchPredictionEnabled;
+	}
+
+	/**
+	 * Emit systrace sections around the phases of every FlipView, such as
+	 * binding pages and drawing each half, along with counter tracks of the
+	 * flip distance and current page. Sections need api 18 and counters api
+	 * 29 or higher.
+	 * 
+	 * @param enabled
+	 */
+	public static void setTracingEnabled(boolean enabled) {
+		FlipTrace.setEnabled(enabled);
+	}
+
+	public static boolean isTracingEnabled() {
+		return FlipTrace.isEnabled();
+	}
+
+	/**
+	 * Receive performance metrics aggregated over every 120 drawn frames. See
+	 * {@link #setOnFrameMetricsListener(OnFrameMetricsListener, int)}.
+	 * 
+	 * @param onFrameMetricsListener
+	 */
+	public void setOnFrameMetricsListener(
+			OnFrameMetricsListener onFrameMetricsListener) {
+		setOnFrameMetricsListener(onFrameMetricsListener,
+				DEFAULT_METRICS_BATCH_SIZE);
+	}
+
+	/**
+	 * Receive performance metrics such as the time spent drawing and binding
+	 * pages, aggregated over a batch of drawn frames. Metrics are only
+	 * collected while there is a listener.
+	 * 
+	 * @param onFrameMetricsListener
+	 *            the listener or null to stop collecting metrics
+	 * @param framesPerBatch
+	 *            the number of frames to aggregate before notifying the
+	 *            listener
+	 */
+	public void setOnFrameMetricsListener(
+			OnFrameMetricsListener onFrameMetricsListener, int framesPerBatch) {
+		if (framesPerBatch < 1) {
+			throw new IllegalArgumentException(
+					"Can't have a framesPerBatch < 1");
+		}
+		mOnFrameMetricsListener = onFrameMetricsListener;
+		mMetricsBatchSize = framesPerBatch;
+		if (onFrameMetricsListener == null) {
+			mMetrics = null;
+			mDeliveredMetrics = null;
+			removeCallbacks(mDeliverMetrics);
+		} else if (mMetrics == null) {
+			mMetrics = new FlipMetrics();
+			mDeliveredMetrics = new FlipMetrics();
+		}
+	}
+
 	/**
 	 * 
 	 * @return the overflip mode of this flipview. Default is GLOW
@@ -1,14 +1,16 @@
 package se.emilsjolander.flipview;
 
 import android.graphics.Canvas;
+import android.graphics.Rect;
+import android.os.Build;
 import android.support.v4.widget.EdgeEffectCompat;
 
-public class GlowOverFlipper implements OverFlipper {
+public class GlowOverFlipper implements DirtyRectOverFlipper {
 	
 	private EdgeEffectCompat mTopEdgeEffect;
 	private EdgeEffectCompat mBottomEdgeEffect;
 	private FlipView mFlipView;
-	private float mTotalOverFlip;
+	private final GlowOverFlip mOverFlip = new GlowOverFlip();
 	
 	public GlowOverFlipper(FlipView v) {
 		mFlipView = v;
@@ -19,9 +21,9 @@ public class GlowOverFlipper implements OverFlipper {
 	@Override
 	public float calculate(float flipDistance, float minFlipDistance,
 			float maxFlipDistance) {
-		float deltaOverFlip = flipDistance - (flipDistance < 0 ? minFlipDistance : maxFlipDistance);
-		
-		mTotalOverFlip += deltaOverFlip;
+		final float result = mOverFlip.calculate(flipDistance,
+				minFlipDistance, maxFlipDistance);
+		final float deltaOverFlip = mOverFlip.getLastDeltaOverFlip();
 		
 		if (deltaOverFlip > 0) {
 			mBottomEdgeEffect.onPull(deltaOverFlip
@@ -30,7 +32,7 @@ public class GlowOverFlipper implements OverFlipper {
 			mTopEdgeEffect.onPull(-deltaOverFlip
 					/ (mFlipView.isFlippingVertically() ? mFlipView.getHeight() : mFlipView.getWidth()));
 		}
-		return flipDistance < 0 ? minFlipDistance : maxFlipDistance;
+		return result;
 	}
 
 	@Override
@@ -75,16 +77,51 @@ public class GlowOverFlipper implements OverFlipper {
 		return needsMoreDrawing;
 	}
 
+	@Override
+	public void getDirtyRect(Rect outRect) {
+		outRect.setEmpty();
+		final boolean topGlowing = !mTopEdgeEffect.isFinished();
+		final boolean bottomGlowing = !mBottomEdgeEffect.isFinished();
+		if (!topGlowing && !bottomGlowing) {
+			return;
+		}
+		final int width = mFlipView.getWidth();
+		final int height = mFlipView.getHeight();
+		if (Build.VERSION.SDK_INT < 21) {
+			// the height of older glows depends on the glow drawable of the
+			// platform, it is not known to fit any part of the view
+			outRect.set(0, 0, width, height);
+			return;
+		}
+		if (mFlipView.isFlippingVertically()) {
+			final int extent = GlowOverFlip.getGlowExtent(width, height);
+			if (topGlowing) {
+				outRect.union(0, 0, width, extent);
+			}
+			if (bottomGlowing) {
+				outRect.union(0, height - extent, width, height);
+			}
+		} else {
+			final int extent = GlowOverFlip.getGlowExtent(height, width);
+			if (topGlowing) {
+				outRect.union(0, 0, extent, height);
+			}
+			if (bottomGlowing) {
+				outRect.union(width - extent, 0, width, height);
+			}
+		}
+	}
+
 	@Override
 	public void overFlipEnded() {
 		mTopEdgeEffect.onRelease();
 		mBottomEdgeEffect.onRelease();
-		mTotalOverFlip = 0;
+		mOverFlip.reset();
 	}
 
 	@Override
 	public float getTotalOverFlip() {
-		return mTotalOverFlip;
+		return mOverFlip.getTotalOverFlip();
 	}
 
 }
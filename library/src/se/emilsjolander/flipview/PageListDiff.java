@@ -0,0 +1,44 @@
+package se.emilsjolander.flipview;
+
+/**
+ *
+ * @author emilsjolander
+ *
+ *         The result of {@link PageListDiffer}, a list of granular updates
+ *         which turn an old list of items into a new one. Dispatch it to a
+ *         FlipView on the main thread right after the adapter has switched to
+ *         the new items.
+ */
+public class PageListDiff {
+
+	private final IdListDiff mDiff;
+
+	PageListDiff(IdListDiff diff) {
+		mDiff = diff;
+	}
+
+	/**
+	 *
+	 * @return the number of granular updates in this diff
+	 */
+	public int getUpdateCount() {
+		return mDiff.getUpdateCount();
+	}
+
+	PageUpdate getUpdate(int index, PageUpdate out) {
+		return mDiff.getUpdate(index, out);
+	}
+
+	/**
+	 * Apply the updates to a FlipView. Must be called on the main thread
+	 * right after the FlipView's adapter has switched to the new items, in
+	 * place of notifying the adapter's observers. Pages are only bound once
+	 * all updates have been applied.
+	 *
+	 * @param flipView
+	 */
+	public void dispatchUpdatesTo(FlipView flipView) {
+		flipView.applyPageUpdates(this);
+	}
+
+}
@@ -0,0 +1,138 @@
+package se.emilsjolander.flipview;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+
+/**
+ *
+ * @author emilsjolander
+ *
+ *         Computes the granular updates between two lists of stable item ids,
+ *         so that replacing the whole list of a FlipView's adapter only costs
+ *         work proportional to the number of changes on the main thread.
+ *         Typical usage:
+ *
+ *         <pre>
+ * PageListDiffer.calculateDiffAsync(oldIds, newIds, null,
+ * 		new PageListDiffer.OnDiffCalculatedListener() {
+ * 			public void onDiffCalculated(PageListDiff diff) {
+ * 				adapter.setItems(newItems);
+ * 				diff.dispatchUpdatesTo(flipView);
+ * 			}
+ * 		});
+ * </pre>
+ *
+ *         Item ids must be unique within each list.
+ */
+public class PageListDiffer {
+
+	/**
+	 * Compares the contents of items which have the same id in both lists,
+	 * called on the thread the diff is calculated on.
+	 */
+	public interface ContentComparator {
+		boolean areContentsTheSame(int oldPosition, int newPosition);
+	}
+
+	/**
+	 * Receives the result of an asynchronous diff on the main thread.
+	 */
+	public interface OnDiffCalculatedListener {
+		void onDiffCalculated(PageListDiff diff);
+	}
+
+	private static Executor sExecutor;
+	private static Handler sMainHandler;
+
+	private PageListDiffer() {
+	}
+
+	/**
+	 * Calculate the diff on a background thread and deliver it on the main
+	 * thread. The id arrays must not be modified until the diff has been
+	 * delivered.
+	 *
+	 * @param oldIds
+	 *            the ids of the items currently in the adapter
+	 * @param newIds
+	 *            the ids of the items the adapter will switch to
+	 * @param comparator
+	 *            used to find items which changed, may be null if items never
+	 *            change their contents without changing their id
+	 * @param listener
+	 */
+	public static void calculateDiffAsync(final long[] oldIds,
+			final long[] newIds, final ContentComparator comparator,
+			final OnDiffCalculatedListener listener) {
+		if (sExecutor == null) {
+			sMainHandler = new Handler(Looper.getMainLooper());
+			sExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+
+				@Override
+				public Thread newThread(final Runnable r) {
+					return new Thread(new Runnable() {
+
+						@Override
+						public void run() {
+							Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+							r.run();
+						}
+					}, "PageListDiffer");
+				}
+			});
+		}
+		sExecutor.execute(new Runnable() {
+
+			@Override
+			public void run() {
+				final PageListDiff diff = calculateDiff(oldIds, newIds,
+						comparator);
+				sMainHandler.post(new Runnable() {
+
+					@Override
+					public void run() {
+						listener.onDiffCalculated(diff);
+					}
+				});
+			}
+		});
+	}
+
+	/**
+	 * Calculate the diff on the calling thread.
+	 *
+	 * @param oldIds
+	 * @param newIds
+	 * @param comparator
+	 *            may be null
+	 * @return the updates turning oldIds into newIds
+	 */
+	public static PageListDiff calculateDiff(long[] oldIds, long[] newIds,
+			ContentComparator comparator) {
+		return new PageListDiff(IdListDiff.calculate(oldIds, newIds,
+				adapt(comparator)));
+	}
+
+	/**
+	 * @return the comparator as the core diff takes it, or null
+	 */
+	private static IdListDiff.ContentComparator adapt(
+			final ContentComparator comparator) {
+		if (comparator == null) {
+			return null;
+		}
+		return new IdListDiff.ContentComparator() {
+
+			@Override
+			public boolean areContentsTheSame(int oldPosition, int newPosition) {
+				return comparator.areContentsTheSame(oldPosition, newPosition);
+			}
+		};
+	}
+
+}
@@ -0,0 +1,186 @@
+package se.emilsjolander.flipview;
+
+import android.content.Context;
+import android.support.v4.view.ViewCompat;
+import android.view.Display;
+import android.view.View;
+import android.view.WindowManager;
+
+/**
+ *
+ * @author emilsjolander
+ *
+ *         Binds the offscreen pages of a FlipView using the time that is left
+ *         over after a frame has been drawn. Pages in the direction of the
+ *         flip are bound first and a pass is restarted whenever the direction
+ *         reverses.
+ */
+class PagePrefetcher implements Runnable {
+
+	interface Callback {
+
+		/**
+		 * Bind the closest offscreen page which is not bound yet.
+		 *
+		 * @param direction
+		 *            1 if flipping towards the next pages, -1 if flipping
+		 *            towards the previous pages
+		 *
+		 * @return true if a page was bound, false if there is nothing left to
+		 *         bind
+		 */
+		boolean prefetchPage(int direction);
+	}
+
+	private static final long NANOS_PER_SECOND = 1000000000;
+	private static final long DEFAULT_FRAME_BUDGET_NS = 4000000;// 4ms
+	private static final float DEFAULT_REFRESH_RATE = 60;
+
+	private final View mView;
+	private final Callback mCallback;
+
+	private final long mFrameIntervalNs;
+	private long mFrameBudgetNs = DEFAULT_FRAME_BUDGET_NS;
+	private long mFrameStartNs;
+
+	private int mDirection = 1;
+	private boolean mScheduled;
+	private boolean mWaitingForFrame;
+
+	private int mHitCount;
+	private int mMissCount;
+
+	PagePrefetcher(View view, Callback callback) {
+		mView = view;
+		mCallback = callback;
+
+		float refreshRate = DEFAULT_REFRESH_RATE;
+		if (!view.isInEditMode()) {
+			final WindowManager wm = (WindowManager) view.getContext()
+					.getSystemService(Context.WINDOW_SERVICE);
+			final Display display = wm.getDefaultDisplay();
+			// some devices report a bogus refresh rate
+			if (display.getRefreshRate() >= 30) {
+				refreshRate = display.getRefreshRate();
+			}
+		}
+		mFrameIntervalNs = (long) (NANOS_PER_SECOND / refreshRate);
+	}
+
+	/**
+	 * Should be called at the start of every frame so that prefetching can be
+	 * kept within the time remaining of that frame.
+	 *
+	 * @param frameStartNs
+	 */
+	void onFrameStart(long frameStartNs) {
+		mFrameStartNs = frameStartNs;
+	}
+
+	/**
+	 * Schedule a prefetch pass, pages will be bound on the next opportunity.
+	 *
+	 * @param direction
+	 *            the direction of the flip, 0 to keep the current direction
+	 */
+	void schedule(int direction) {
+		setDirection(direction);
+		if (!mScheduled) {
+			mScheduled = true;
+			mView.post(this);
+		}
+	}
+
+	/**
+	 * Restart any pending pass in the new direction if the direction has
+	 * reversed.
+	 *
+	 * @param direction
+	 *            the direction of the flip, 0 to keep the current direction
+	 */
+	void setDirection(int direction) {
+		if (direction == 0 || direction == mDirection) {
+			return;
+		}
+		mDirection = direction;
+		if (mScheduled) {
+			cancel();
+			schedule(direction);
+		}
+	}
+
+	void cancel() {
+		if (mScheduled) {
+			mView.removeCallbacks(this);
+			mScheduled = false;
+			mWaitingForFrame = false;
+		}
+	}
+
+	void setFrameBudget(long frameBudgetNs) {
+		mFrameBudgetNs = frameBudgetNs;
+	}
+
+	long getFrameBudget() {
+		return mFrameBudgetNs;
+	}
+
+	/**
+	 * 
+	 * @return the time between two frames of the display
+	 */
+	long getFrameInterval() {
+		return mFrameIntervalNs;
+	}
+
+	@Override
+	public void run() {
+		if (mWaitingForFrame) {
+			// this is the start of the next frame, run after it has been drawn
+			mWaitingForFrame = false;
+			mView.post(this);
+			return;
+		}
+		mScheduled = false;
+
+		final long startNs = System.nanoTime();
+		long deadlineNs = startNs + mFrameBudgetNs;
+		// if we are running within a frame make sure to not eat into the next
+		if (startNs - mFrameStartNs < mFrameIntervalNs) {
+			deadlineNs = Math.min(deadlineNs, mFrameStartNs + mFrameIntervalNs);
+		}
+
+		while (System.nanoTime() < deadlineNs) {
+			if (!mCallback.prefetchPage(mDirection)) {
+				return;
+			}
+		}
+
+		// out of time, continue after the next frame
+		mScheduled = true;
+		mWaitingForFrame = true;
+		ViewCompat.postOnAnimation(mView, this);
+	}
+
+	void recordHit() {
+		mHitCount++;
+	}
+
+	void recordMiss() {
+		mMissCount++;
+	}
+
+	int getHitCount() {
+		return mHitCount;
+	}
+
+	int getMissCount() {
+		return mMissCount;
+	}
+
+	void resetCounts() {
+		mHitCount = 0;
+		mMissCount = 0;
+	}
+
+}
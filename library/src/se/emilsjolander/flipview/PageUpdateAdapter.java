@@ -0,0 +1,19 @@
+package se.emilsjolander.flipview;
+
+/**
+ * 
+ * @author emilsjolander
+ * 
+ *         Optional interface for adapters which know exactly which of their
+ *         items changed. A FlipView registers a PageUpdateObserver with such an
+ *         adapter and only binds the pages affected by an update, instead of
+ *         every page as it does for notifyDataSetChanged(). A
+ *         PageUpdateObservable keeps track of the observers.
+ */
+public interface PageUpdateAdapter {
+
+	void registerPageUpdateObserver(PageUpdateObserver observer);
+
+	void unregisterPageUpdateObserver(PageUpdateObserver observer);
+
+}
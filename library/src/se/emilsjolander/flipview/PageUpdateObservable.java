@@ -0,0 +1,40 @@
+package se.emilsjolander.flipview;
+
+import android.database.Observable;
+
+/**
+ * 
+ * @author emilsjolander
+ * 
+ *         The observers of a PageUpdateAdapter. Call the notify methods
+ *         instead of, not in addition to, notifyDataSetChanged() and only
+ *         after the adapter reflects the update.
+ */
+public class PageUpdateObservable extends Observable<PageUpdateObserver> {
+
+	public void notifyItemRangeInserted(int positionStart, int itemCount) {
+		// backwards so observers can unregister themselves while notified
+		for (int i = mObservers.size() - 1; i >= 0; i--) {
+			mObservers.get(i).onItemRangeInserted(positionStart, itemCount);
+		}
+	}
+
+	public void notifyItemRangeRemoved(int positionStart, int itemCount) {
+		for (int i = mObservers.size() - 1; i >= 0; i--) {
+			mObservers.get(i).onItemRangeRemoved(positionStart, itemCount);
+		}
+	}
+
+	public void notifyItemMoved(int fromPosition, int toPosition) {
+		for (int i = mObservers.size() - 1; i >= 0; i--) {
+			mObservers.get(i).onItemMoved(fromPosition, toPosition);
+		}
+	}
+
+	public void notifyItemRangeChanged(int positionStart, int itemCount) {
+		for (int i = mObservers.size() - 1; i >= 0; i--) {
+			mObservers.get(i).onItemRangeChanged(positionStart, itemCount);
+		}
+	}
+
+}
@@ -0,0 +1,24 @@
+package se.emilsjolander.flipview;
+
+/**
+ * 
+ * @author emilsjolander
+ * 
+ *         Receives the granular updates of a PageUpdateAdapter, called after
+ *         the adapter reflects the update.
+ */
+public abstract class PageUpdateObserver {
+
+	public void onItemRangeInserted(int positionStart, int itemCount) {
+	}
+
+	public void onItemRangeRemoved(int positionStart, int itemCount) {
+	}
+
+	public void onItemMoved(int fromPosition, int toPosition) {
+	}
+
+	public void onItemRangeChanged(int positionStart, int itemCount) {
+	}
+
+}
@@ -0,0 +1,31 @@
+package se.emilsjolander.flipview;
+
+import android.view.View;
+import android.view.ViewGroup;
+
+/**
+ * 
+ * @author emilsjolander
+ * 
+ *         Optional interface for adapters whose pages can be slow to bind.
+ *         When a FlipView with a bind budget runs out of time for a frame, it
+ *         shows the view returned here in place of a page until the page has
+ *         been bound in between the following frames.
+ */
+public interface PlaceholderAdapter {
+
+	/**
+	 * 
+	 * @param position
+	 *            the position of the page the placeholder stands in for
+	 * @param convertView
+	 *            a view previously returned by this method which is no
+	 *            longer shown, may be null
+	 * @param parent
+	 * 
+	 * @return a view which is cheap to bind, or null to show the placeholder
+	 *         color of the FlipView
+	 */
+	View getPlaceholderView(int position, View convertView, ViewGroup parent);
+
+}
@@ -0,0 +1,141 @@
+package se.emilsjolander.flipview;
+
+import android.view.View;
+
+/**
+ *
+ * @author emilsjolander
+ *
+ *         A pool of recycled page views which can be shared between multiple
+ *         FlipViews showing the same kinds of pages, so that a view inflated
+ *         by one FlipView can be reused by another. Views are kept by view type
+ *         and the pool as a whole is bounded, when it is full the least
+ *         recently added view is dropped. Only use a pool from the main thread.
+ */
+public class RecycledViewPool {
+
+	private static class Entry {
+		View v;
+		int viewType;
+		Entry previous;
+		Entry next;
+	}
+
+	/** The default number of views kept by a pool. */
+	public static final int DEFAULT_MAX_SIZE = 20;
+
+	private final int mMaxSize;
+	private int mSize;
+
+	// views ordered from the least to the most recently added
+	private Entry mOldest;
+	private Entry mNewest;
+
+	// entries not in use, reused so that pooling does not allocate
+	private Entry mFreeEntries;
+
+	public RecycledViewPool() {
+		this(DEFAULT_MAX_SIZE);
+	}
+
+	/**
+	 *
+	 * @param maxSize
+	 *            the maximum number of views kept by this pool, across all view
+	 *            types
+	 */
+	public RecycledViewPool(int maxSize) {
+		if (maxSize < 1) {
+			throw new IllegalArgumentException("Can't have a maxSize < 1");
+		}
+		mMaxSize = maxSize;
+	}
+
+	/**
+	 *
+	 * @param viewType
+	 * @return the most recently added view of viewType, or null if the pool
+	 *         has none. The view has to be rebound by the adapter.
+	 */
+	public View getRecycledView(int viewType) {
+		for (Entry e = mNewest; e != null; e = e.previous) {
+			if (e.viewType == viewType) {
+				final View v = e.v;
+				remove(e);
+				return v;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Add a view which is no longer attached to any parent to the pool.
+	 *
+	 * @param v
+	 * @param viewType
+	 */
+	public void putRecycledView(View v, int viewType) {
+		if (mSize == mMaxSize) {
+			remove(mOldest);
+		}
+
+		Entry e = mFreeEntries;
+		if (e != null) {
+			mFreeEntries = e.next;
+			e.next = null;
+		} else {
+			e = new Entry();
+		}
+		e.v = v;
+		e.viewType = viewType;
+
+		e.previous = mNewest;
+		if (mNewest != null) {
+			mNewest.next = e;
+		} else {
+			mOldest = e;
+		}
+		mNewest = e;
+		mSize++;
+	}
+
+	/**
+	 *
+	 * @return the number of views currently in the pool
+	 */
+	public int getRecycledViewCount() {
+		return mSize;
+	}
+
+	public int getMaxSize() {
+		return mMaxSize;
+	}
+
+	/**
+	 * Drop all views in the pool
+	 */
+	public void clear() {
+		while (mOldest != null) {
+			remove(mOldest);
+		}
+	}
+
+	private void remove(Entry e) {
+		if (e.previous != null) {
+			e.previous.next = e.next;
+		} else {
+			mOldest = e.next;
+		}
+		if (e.next != null) {
+			e.next.previous = e.previous;
+		} else {
+			mNewest = e.previous;
+		}
+		e.v = null;
+		e.previous = null;
+		e.next = mFreeEntries;
+		mFreeEntries = e;
+		mSize--;
+	}
+
+}
@@ -1,102 +1,135 @@
 package se.emilsjolander.flipview;
 
+import se.emilsjolander.flipview.ScrapHeap.Scrap;
 import android.annotation.TargetApi;
 import android.os.Build;
-import android.util.SparseArray;
+import android.util.SparseIntArray;
 import android.view.View;
 
 public class Recycler {
 
-	static class Scrap {
-		View v;
-		boolean valid;
-
-		public Scrap(View scrap, boolean valid) {
-			this.v = scrap;
-			this.valid = valid;
-		}
-	}
+	/** Pool shared with other FlipViews, receives the scraps dropped here. */
+	private RecycledViewPool pool;
 
 	/** Unsorted views that can be used by the adapter as a convert view. */
-	private SparseArray<Scrap>[] scraps;
-	private SparseArray<Scrap> currentScraps;
+	private final ScrapHeap<View> scraps = new ScrapHeap<View>(
+			new ScrapHeap.OnScrapEvictedListener<View>() {
 
-	private int viewTypeCount;
+				@Override
+				public void onScrapEvicted(View v, int viewType) {
+					if (pool != null) {
+						pool.putRecycledView(v, viewType);
+					}
+				}
+			});
+
+	/**
+	 * Capacities which differ from ScrapHeap.DEFAULT_MAX_SCRAP, keyed by view
+	 * type.
+	 */
+	private SparseIntArray maxScraps = new SparseIntArray();
+
+	void setRecycledViewPool(RecycledViewPool pool) {
+		this.pool = pool;
+	}
+
+	RecycledViewPool getRecycledViewPool() {
+		return pool;
+	}
 
 	void setViewTypeCount(int viewTypeCount) {
-		if (viewTypeCount < 1) {
-			throw new IllegalArgumentException("Can't have a viewTypeCount < 1");
+		// the scraps of the old view types are dropped, they are no longer
+		// valid types for the shared pool either
+		if (scraps.setViewTypeCount(viewTypeCount)) {
+			for (int i = 0; i < maxScraps.size(); i++) {
+				final int viewType = maxScraps.keyAt(i);
+				if (scraps.hasViewType(viewType)) {
+					scraps.setMaxScrap(viewType, maxScraps.valueAt(i));
+				}
+			}
 		}
-		// do nothing if the view type count has not changed.
-		if (currentScraps != null && viewTypeCount == scraps.length) {
-			return;
+	}
+
+	/**
+	 * Set the number of scraps kept for a view type. When there are more
+	 * scraps than that the least recently added ones are dropped.
+	 *
+	 * @param viewType
+	 * @param max
+	 */
+	void setMaxScrap(int viewType, int max) {
+		if (max < 0) {
+			throw new IllegalArgumentException("Can't have a max scrap < 0");
 		}
-		// noinspection unchecked
-		@SuppressWarnings("unchecked")
-		SparseArray<Scrap>[] scrapViews = new SparseArray[viewTypeCount];
-		for (int i = 0; i < viewTypeCount; i++) {
-			scrapViews[i] = new SparseArray<Scrap>();
+		maxScraps.put(viewType, max);
+		if (scraps.hasViewType(viewType)) {
+			scraps.setMaxScrap(viewType, max);
 		}
-		this.viewTypeCount = viewTypeCount;
-		currentScraps = scrapViews[0];
-		this.scraps = scrapViews;
 	}
 
-	/** @return A view from the ScrapViews collection. These are unordered. */
-	Scrap getScrapView(int position, int viewType) {
-		if (viewTypeCount == 1) {
-			return retrieveFromScrap(currentScraps, position);
-		} else if (viewType >= 0 && viewType < scraps.length) {
-			return retrieveFromScrap(scraps[viewType], position);
+	/**
+	 * @return A view from the ScrapViews collection. These are unordered. The
+	 *         returned scrap may be reused by the next call to addScrapView so
+	 *         read it right away.
+	 */
+	Scrap<View> getScrapView(int position, int viewType) {
+		if (scraps.hasViewType(viewType)) {
+			final Scrap<View> result = scraps.getScrap(position, viewType);
+			if (result != null || pool == null) {
+				return result;
+			}
+
+			// fall back to a view recycled by any FlipView sharing the pool
+			final View v = pool.getRecycledView(viewType);
+			if (v != null) {
+				return scraps.wrapInvalid(v, position);
+			}
 		}
 		return null;
 	}
 
 	/**
 	 * Put a view into the ScrapViews list. These views are unordered.
-	 * 
+	 *
 	 * @param scrap
 	 *            The view to add
 	 */
 	@TargetApi(Build.VERSION_CODES.ICE_CREAM_SANDWICH)
 	void addScrapView(View scrap, int position, int viewType) {
-		// create a new Scrap
-		Scrap item = new Scrap(scrap, true);
-		
-		if (viewTypeCount == 1) {
-			currentScraps.put(position, item);
-		} else {
-			scraps[viewType].put(position, item);
+		// views of an unknown type, such as IGNORE_ITEM_VIEW_TYPE, are not
+		// recycled
+		if (!scraps.hasViewType(viewType)) {
+			return;
+		}
+		if (!scraps.addScrap(scrap, position, viewType)) {
+			if (pool != null) {
+				pool.putRecycledView(scrap, viewType);
+			}
+			return;
 		}
+
 		if (Build.VERSION.SDK_INT >= 14) {
 			scrap.setAccessibilityDelegate(null);
 		}
 	}
 
-	static Scrap retrieveFromScrap(SparseArray<Scrap> scrapViews, int position) {
-		int size = scrapViews.size();
-		if (size > 0) {
-			// See if we still have a view for this position.
-			Scrap result = scrapViews.get(position, null);
-			if (result != null) {
-				scrapViews.remove(position);
-				return result;
-			}
-			int index = size - 1;
-			result = scrapViews.valueAt(index);
-			scrapViews.removeAt(index);
-			result.valid = false;
-			return result;
-		}
-		return null;
+	void invalidateScraps() {
+		scraps.invalidateScraps();
 	}
 
-	void invalidateScraps() {
-		for (SparseArray<Scrap> array : scraps) {
-			for (int i = 0; i < array.size(); i++) {
-				array.valueAt(i).valid = false;
-			}
-		}
+	/**
+	 * Move the scraps to the positions their items have after an update,
+	 * scraps of removed or changed items are invalidated.
+	 */
+	void applyUpdate(PageUpdate update) {
+		scraps.applyUpdate(update);
+	}
+
+	/**
+	 * Drop all scraps, keeping the configured capacities
+	 */
+	void clear() {
+		scraps.clear();
 	}
 
 }
@@ -0,0 +1,212 @@
+package se.emilsjolander.flipview;
+
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.LinearGradient;
+import android.graphics.LightingColorFilter;
+import android.graphics.Matrix;
+import android.graphics.Paint;
+import android.graphics.Paint.Style;
+import android.graphics.Rect;
+import android.graphics.Shader;
+
+/**
+ *
+ * @author emilsjolander
+ *
+ *         Draws the lighting of a flip: the shadow the flipping page casts on
+ *         the static half it moves over, and the shade or shine on the
+ *         flipping page itself. The shadow only covers the part of the static
+ *         half which the flipping page does not, and fades with the distance
+ *         to the flipping page.
+ */
+class ShadowRenderer {
+
+	private static final int MAX_SHADOW_ALPHA = 180;// out of 255
+	private static final int MAX_SHADE_ALPHA = 130;// out of 255
+	private static final int MAX_SHINE_ALPHA = 100;// out of 255
+
+	// alpha of the shadow furthest away from the flipping page, relative to
+	// the alpha right next to it
+	private static final int SHADOW_FAR_ALPHA = 0x66;
+
+	private final Paint mShadowPaint = new Paint(Paint.DITHER_FLAG);
+	private final Paint mShadePaint = new Paint();
+	private final Paint mShinePaint = new Paint();
+	private final Matrix mShaderMatrix = new Matrix();
+	private final Rect mShadowRect = new Rect();
+
+	// filters which shade or shine a snapshot while drawing it, by alpha
+	private final LightingColorFilter[] mShadeFilters = new LightingColorFilter[256];
+	private final LightingColorFilter[] mShineFilters = new LightingColorFilter[256];
+
+	private int mWidth;
+	private int mHeight;
+	private boolean mIsFlippingVertically;
+	private float mIntensity = 1;
+
+	// the shadow of the current frame along the flip axis, it is darkest at
+	// mShadowNear next to the flipping page
+	private boolean mHasShadow;
+	private float mShadowNear;
+	private float mShadowFar;
+
+	// pixels filled by shadows, shades and shines since last taken
+	private long mPixelsFilled;
+
+	ShadowRenderer() {
+		mShadowPaint.setStyle(Style.FILL);
+		mShadePaint.setColor(Color.BLACK);
+		mShadePaint.setStyle(Style.FILL);
+		mShinePaint.setColor(Color.WHITE);
+		mShinePaint.setStyle(Style.FILL);
+	}
+
+	/**
+	 * Create the shadow gradient for a new size or orientation.
+	 */
+	void setSize(int width, int height, boolean flippingVertically) {
+		if (width == mWidth && height == mHeight
+				&& flippingVertically == mIsFlippingVertically
+				&& mShadowPaint.getShader() != null) {
+			return;
+		}
+		mWidth = width;
+		mHeight = height;
+		mIsFlippingVertically = flippingVertically;
+
+		// the gradient spans half the view along the flip axis and is
+		// squeezed onto the uncovered part of a half with a local matrix
+		final int half = (flippingVertically ? height : width) / 2;
+		mShadowPaint.setShader(new LinearGradient(0, 0, flippingVertically ? 0
+				: half, flippingVertically ? half : 0, Color.BLACK, Color.argb(
+				SHADOW_FAR_ALPHA, 0, 0, 0), Shader.TileMode.CLAMP));
+	}
+
+	/**
+	 *
+	 * @param intensity
+	 *            from 0, no lighting at all, to 1
+	 */
+	void setIntensity(float intensity) {
+		mIntensity = intensity;
+	}
+
+	float getIntensity() {
+		return mIntensity;
+	}
+
+	/**
+	 * Place the shadow on the part of the static half which the flipping page
+	 * leaves uncovered this frame.
+	 *
+	 * @param coverage
+	 *            updated for this frame
+	 */
+	void update(FlipCoverage coverage) {
+		mHasShadow = mIntensity > 0 && !coverage.isStaticHalfCovered();
+		mShadowNear = coverage.getCoveredEdge();
+		mShadowFar = coverage.getOuterEdge();
+	}
+
+	/**
+	 * Draw the shadow on the static half which the page is flipping over, the
+	 * canvas should be clipped to that half.
+	 *
+	 * @param canvas
+	 * @param degreesFlipped
+	 */
+	void drawShadow(Canvas canvas, float degreesFlipped) {
+		if (!mHasShadow) {
+			return;
+		}
+		final int alpha = (int) ((Math.abs(degreesFlipped - 90) / 90f)
+				* MAX_SHADOW_ALPHA * mIntensity);
+		if (alpha == 0) {
+			return;
+		}
+
+		final float half = (mIsFlippingVertically ? mHeight : mWidth) / 2;
+		final float scale = (mShadowFar - mShadowNear) / half;
+		final int start = (int) Math.min(mShadowNear, mShadowFar);
+		final int end = (int) Math.ceil(Math.max(mShadowNear, mShadowFar));
+		if (mIsFlippingVertically) {
+			mShaderMatrix.setScale(1, scale);
+			mShaderMatrix.postTranslate(0, mShadowNear);
+			mShadowRect.set(0, start, mWidth, end);
+		} else {
+			mShaderMatrix.setScale(scale, 1);
+			mShaderMatrix.postTranslate(mShadowNear, 0);
+			mShadowRect.set(start, 0, end, mHeight);
+		}
+		mShadowPaint.getShader().setLocalMatrix(mShaderMatrix);
+		mShadowPaint.setAlpha(alpha);
+		canvas.drawRect(mShadowRect, mShadowPaint);
+		mPixelsFilled += (long) mShadowRect.width() * mShadowRect.height();
+	}
+
+	/**
+	 * Draw a shade if flipping on the previous(top/left) half and a shine if
+	 * flipping on the next(bottom/right) half, over the flipping page.
+	 *
+	 * @param canvas
+	 * @param degreesFlipped
+	 * @param page
+	 *            the half the flipping page is drawn in, before the flip
+	 *            transform
+	 */
+	void drawShadeShine(Canvas canvas, float degreesFlipped, Rect page) {
+		final int alpha = getShadeShineAlpha(degreesFlipped);
+		if (alpha == 0) {
+			return;
+		}
+		final Paint paint = degreesFlipped < 90 ? mShinePaint : mShadePaint;
+		paint.setAlpha(alpha);
+		canvas.drawRect(page, paint);
+		mPixelsFilled += (long) page.width() * page.height();
+	}
+
+	/**
+	 *
+	 * @param degreesFlipped
+	 * @return a filter applying the shade or shine while drawing a snapshot of
+	 *         the flipping page, so that no extra pass is needed, or null if
+	 *         there is nothing to apply
+	 */
+	LightingColorFilter getShadeShineFilter(float degreesFlipped) {
+		final int alpha = getShadeShineAlpha(degreesFlipped);
+		if (alpha == 0) {
+			return null;
+		}
+		final boolean shine = degreesFlipped < 90;
+		final LightingColorFilter[] filters = shine ? mShineFilters
+				: mShadeFilters;
+		if (filters[alpha] == null) {
+			// blend towards white or black by alpha
+			final int keep = 255 - alpha;
+			final int add = shine ? alpha : 0;
+			filters[alpha] = new LightingColorFilter(
+					Color.rgb(keep, keep, keep), Color.rgb(add, add, add));
+		}
+		return filters[alpha];
+	}
+
+	private int getShadeShineAlpha(float degreesFlipped) {
+		if (degreesFlipped < 90) {
+			return (int) ((degreesFlipped / 90f) * MAX_SHINE_ALPHA * mIntensity);
+		}
+		return (int) ((Math.abs(degreesFlipped - 180) / 90f) * MAX_SHADE_ALPHA * mIntensity);
+	}
+
+	/**
+	 *
+	 * @return the pixels filled since the last call, the area of the shade or
+	 *         shine is counted before the flip transform
+	 */
+	long takePixelsFilled() {
+		final long pixels = mPixelsFilled;
+		mPixelsFilled = 0;
+		return pixels;
+	}
+
+}
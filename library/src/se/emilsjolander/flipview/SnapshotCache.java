@@ -0,0 +1,55 @@
+package se.emilsjolander.flipview;
+
+import android.graphics.Bitmap;
+import android.support.v4.util.LruCache;
+
+/**
+ * 
+ * @author emilsjolander
+ * 
+ *         Keeps the snapshots of recently flipped pages keyed by their item id
+ *         so that a revisited page can be flipped without being drawn again.
+ *         A snapshot is owned either by the cache or by a page, never both, so
+ *         an evicted snapshot can safely be reused.
+ */
+class SnapshotCache extends LruCache<Long, Bitmap> {
+
+	private final SnapshotRenderer mRenderer;
+
+	/**
+	 * 
+	 * @param maxBytes
+	 *            the number of bytes the cached snapshots may use
+	 * @param renderer
+	 *            the renderer which evicted snapshots are returned to
+	 */
+	SnapshotCache(int maxBytes, SnapshotRenderer renderer) {
+		super(maxBytes);
+		mRenderer = renderer;
+	}
+
+	/**
+	 * Take the snapshot for an item out of the cache.
+	 * 
+	 * @param id
+	 * @return the snapshot or null if there is none
+	 */
+	Bitmap take(long id) {
+		return remove(id);
+	}
+
+	@Override
+	protected int sizeOf(Long key, Bitmap value) {
+		return value.getRowBytes() * value.getHeight();
+	}
+
+	@Override
+	protected void entryRemoved(boolean evicted, Long key, Bitmap oldValue,
+			Bitmap newValue) {
+		// a snapshot which was taken out of the cache is owned by a page
+		if (evicted || (newValue != null && newValue != oldValue)) {
+			mRenderer.release(oldValue);
+		}
+	}
+
+}
@@ -0,0 +1,14 @@
+package se.emilsjolander.flipview;
+
+/**
+ * 
+ * @author emilsjolander
+ * 
+ *         The bitmap format used for page snapshots. ARGB_8888 is full
+ *         quality, RGB_565 uses half the memory but drops transparency and
+ *         DOWNSAMPLED renders at half the width and height using a quarter of
+ *         the memory.
+ */
+public enum SnapshotConfig {
+	ARGB_8888, RGB_565, DOWNSAMPLED
+}
@@ -0,0 +1,155 @@
+package se.emilsjolander.flipview;
+
+import java.util.ArrayList;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.ColorFilter;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.view.View;
+
+/**
+ *
+ * @author emilsjolander
+ *
+ *         Rasterizes pages into bitmaps so that a flip can be drawn without
+ *         traversing the view trees of the pages. Bitmaps are reused between
+ *         flips as long as the size of the FlipView does not change.
+ */
+class SnapshotRenderer {
+
+	// more than the three pages taking part in a flip is never needed
+	private static final int MAX_POOL_SIZE = 3;
+
+	private final ArrayList<Bitmap> mPool = new ArrayList<Bitmap>(
+			MAX_POOL_SIZE);
+	private final Canvas mCanvas = new Canvas();
+	private final Paint mPaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+	private final Rect mDestination = new Rect();
+
+	private SnapshotConfig mConfig = SnapshotConfig.ARGB_8888;
+	private int mWidth;
+	private int mHeight;
+
+	/**
+	 * Set the size of the snapshots, pooled bitmaps of another size are
+	 * dropped.
+	 *
+	 * @param width
+	 * @param height
+	 */
+	void setSize(int width, int height) {
+		if (width == mWidth && height == mHeight) {
+			return;
+		}
+		mWidth = width;
+		mHeight = height;
+		mDestination.set(0, 0, width, height);
+		clear();
+	}
+
+	/**
+	 * Set the bitmap format of the snapshots, pooled bitmaps of another format
+	 * are dropped.
+	 * 
+	 * @param config
+	 */
+	void setConfig(SnapshotConfig config) {
+		if (config == mConfig) {
+			return;
+		}
+		mConfig = config;
+		clear();
+	}
+
+	SnapshotConfig getConfig() {
+		return mConfig;
+	}
+
+	/**
+	 *
+	 * @param v
+	 *            a laid out view to rasterize
+	 * @return a bitmap holding the contents of v, or null if there is nothing
+	 *         to rasterize
+	 */
+	Bitmap capture(View v) {
+		if (getBitmapWidth() <= 0 || getBitmapHeight() <= 0) {
+			return null;
+		}
+		final Bitmap bitmap = obtain();
+		bitmap.eraseColor(Color.TRANSPARENT);
+		mCanvas.setBitmap(bitmap);
+		mCanvas.save();
+		if (mConfig == SnapshotConfig.DOWNSAMPLED) {
+			mCanvas.scale(0.5f, 0.5f);
+		}
+		v.draw(mCanvas);
+		mCanvas.restore();
+		return bitmap;
+	}
+
+	/**
+	 * 
+	 * @param canvas
+	 * @param snapshot
+	 * @param filter
+	 *            applied to the snapshot while drawing, may be null
+	 */
+	void draw(Canvas canvas, Bitmap snapshot, ColorFilter filter) {
+		mPaint.setColorFilter(filter);
+		canvas.drawBitmap(snapshot, null, mDestination, mPaint);
+	}
+
+	/**
+	 * Return a snapshot to the pool so that its memory can be used for the
+	 * next snapshot.
+	 *
+	 * @param snapshot
+	 */
+	void release(Bitmap snapshot) {
+		if (snapshot.getWidth() == getBitmapWidth()
+				&& snapshot.getHeight() == getBitmapHeight()
+				&& snapshot.getConfig() == getBitmapConfig()
+				&& mPool.size() < MAX_POOL_SIZE) {
+			mPool.add(snapshot);
+		} else {
+			snapshot.recycle();
+		}
+	}
+
+	/**
+	 * Free all pooled bitmaps
+	 */
+	void clear() {
+		for (int i = 0; i < mPool.size(); i++) {
+			mPool.get(i).recycle();
+		}
+		mPool.clear();
+	}
+
+	private Bitmap obtain() {
+		final int size = mPool.size();
+		if (size > 0) {
+			return mPool.remove(size - 1);
+		}
+		return Bitmap.createBitmap(getBitmapWidth(), getBitmapHeight(),
+				getBitmapConfig());
+	}
+
+	private int getBitmapWidth() {
+		return mConfig == SnapshotConfig.DOWNSAMPLED ? mWidth / 2 : mWidth;
+	}
+
+	private int getBitmapHeight() {
+		return mConfig == SnapshotConfig.DOWNSAMPLED ? mHeight / 2 : mHeight;
+	}
+
+	private Bitmap.Config getBitmapConfig() {
+		return mConfig == SnapshotConfig.RGB_565 ? Bitmap.Config.RGB_565
+				: Bitmap.Config.ARGB_8888;
+	}
+
+}
@@ -0,0 +1,77 @@
+package se.emilsjolander.flipview;
+
+import java.util.ArrayList;
+
+import android.content.Context;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.BaseAdapter;
+
+/**
+ *
+ * @author emilsjolander
+ *
+ *         An adapter of PageViews with stable ids which counts how often
+ *         FlipView asks it for a view.
+ */
+class CountingAdapter extends BaseAdapter {
+
+	private final Context mContext;
+	private final int mCount;
+	private final boolean mOpaque;
+
+	int getViewCount;
+	int convertViewCount;
+	// every view the adapter has created
+	final ArrayList<PageView> views = new ArrayList<PageView>();
+
+	CountingAdapter(Context context, int count) {
+		this(context, count, false);
+	}
+
+	CountingAdapter(Context context, int count, boolean opaque) {
+		mContext = context;
+		mCount = count;
+		mOpaque = opaque;
+	}
+
+	void resetCounts() {
+		getViewCount = 0;
+		convertViewCount = 0;
+	}
+
+	@Override
+	public int getCount() {
+		return mCount;
+	}
+
+	@Override
+	public Object getItem(int position) {
+		return position;
+	}
+
+	@Override
+	public long getItemId(int position) {
+		return position;
+	}
+
+	@Override
+	public boolean hasStableIds() {
+		return true;
+	}
+
+	@Override
+	public View getView(int position, View convertView, ViewGroup parent) {
+		getViewCount++;
+		if (convertView != null) {
+			convertViewCount++;
+			((PageView) convertView).position = position;
+			return convertView;
+		}
+		final PageView v = new PageView(mContext, mOpaque);
+		v.position = position;
+		views.add(v);
+		return v;
+	}
+
+}
@@ -0,0 +1,27 @@
+package se.emilsjolander.flipview;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+
+/**
+ *
+ * @author emilsjolander
+ *
+ *         A canvas counting the pages drawn into it. FlipView itself never
+ *         calls drawColor, only PageView does.
+ */
+class CountingCanvas extends Canvas {
+
+	int pageDrawCount;
+
+	CountingCanvas(Bitmap bitmap) {
+		super(bitmap);
+	}
+
+	@Override
+	public void drawColor(int color) {
+		pageDrawCount++;
+		super.drawColor(color);
+	}
+
+}
@@ -0,0 +1,234 @@
+package se.emilsjolander.flipview;
+
+import java.util.IdentityHashMap;
+
+import android.annotation.TargetApi;
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.os.Build;
+import android.os.Debug;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.test.InstrumentationTestCase;
+import android.view.Choreographer;
+import android.view.MotionEvent;
+import android.view.View.MeasureSpec;
+import android.view.ViewConfiguration;
+
+/**
+ *
+ * @author emilsjolander
+ *
+ *         Drags a FlipView to the next page and back, lets it settle and
+ *         peaks, with the real frame callbacks, and checks that once this has
+ *         been done before the ui thread allocates nothing while doing it
+ *         again. Touch events are created on the instrumentation thread, only
+ *         the work done by the FlipView on the ui thread is counted. Needs
+ *         api 16 or higher.
+ */
+public class FlipViewAllocationTest extends InstrumentationTestCase {
+
+	private static final int PAGE_COUNT = 10;
+	private static final int WIDTH = 480;
+	private static final int HEIGHT = 800;
+	private static final int DRAG_STEPS = 8;
+	private static final long FRAME_MS = 16;
+	// longer than settling on a page or peaking once
+	private static final int SETTLE_FRAMES = 60;
+
+	/**
+	 * Runs posted callbacks the way an attached view does, through the
+	 * looper and the choreographer. An unattached view queues them in run
+	 * queue entries which are allocated for every post.
+	 */
+	@TargetApi(Build.VERSION_CODES.JELLY_BEAN)
+	static class PostingFlipView extends FlipView {
+
+		private final Handler mHandler = new Handler(Looper.getMainLooper());
+		private final IdentityHashMap<Runnable, Choreographer.FrameCallback> mFrameCallbacks = new IdentityHashMap<Runnable, Choreographer.FrameCallback>();
+
+		PostingFlipView(Context context) {
+			super(context);
+		}
+
+		@Override
+		public boolean post(Runnable action) {
+			return mHandler.post(action);
+		}
+
+		@Override
+		public void postOnAnimation(Runnable action) {
+			Choreographer.getInstance().postFrameCallback(
+					getFrameCallback(action));
+		}
+
+		@Override
+		public boolean removeCallbacks(Runnable action) {
+			mHandler.removeCallbacks(action);
+			Choreographer.getInstance().removeFrameCallback(
+					getFrameCallback(action));
+			return true;
+		}
+
+		/**
+		 * The callbacks are created while warming up, the same runnables are
+		 * posted every time.
+		 */
+		private Choreographer.FrameCallback getFrameCallback(
+				final Runnable action) {
+			Choreographer.FrameCallback callback = mFrameCallbacks.get(action);
+			if (callback == null) {
+				callback = new Choreographer.FrameCallback() {
+
+					@Override
+					public void doFrame(long frameTimeNanos) {
+						action.run();
+					}
+				};
+				mFrameCallbacks.put(action, callback);
+			}
+			return callback;
+		}
+
+	}
+
+	private PostingFlipView mFlipView;
+	private Canvas mCanvas;
+	private MotionEvent mEvent;
+	private int mAllocCount;
+
+	private final Runnable mDispatchEvent = new Runnable() {
+
+		@Override
+		public void run() {
+			mFlipView.onTouchEvent(mEvent);
+		}
+	};
+
+	private final Runnable mDraw = new Runnable() {
+
+		@Override
+		public void run() {
+			mFlipView.draw(mCanvas);
+		}
+	};
+
+	private final Runnable mPeak = new Runnable() {
+
+		@Override
+		public void run() {
+			mFlipView.peakNext(true);
+		}
+	};
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		mCanvas = new Canvas(Bitmap.createBitmap(WIDTH, HEIGHT,
+				Bitmap.Config.ARGB_8888));
+		getInstrumentation().runOnMainSync(new Runnable() {
+
+			@Override
+			public void run() {
+				mFlipView = new PostingFlipView(getContext());
+				mFlipView.setAdapter(new CountingAdapter(getContext(),
+						PAGE_COUNT));
+				mFlipView.measure(MeasureSpec.makeMeasureSpec(WIDTH,
+						MeasureSpec.EXACTLY), MeasureSpec.makeMeasureSpec(
+						HEIGHT, MeasureSpec.EXACTLY));
+				mFlipView.layout(0, 0, WIDTH, HEIGHT);
+			}
+		});
+	}
+
+	private Context getContext() {
+		return getInstrumentation().getTargetContext();
+	}
+
+	/**
+	 * Drag vertically in steps, drawing a frame after each of them, and
+	 * release.
+	 *
+	 * @param pixels
+	 *            positive to flip towards the next page
+	 */
+	private void drag(int pixels) throws InterruptedException {
+		final int touchSlop = ViewConfiguration.get(getContext())
+				.getScaledPagingTouchSlop();
+		final long downTime = SystemClock.uptimeMillis();
+		final float x = WIDTH / 2;
+		float y = HEIGHT / 2;
+		sendTouch(downTime, MotionEvent.ACTION_DOWN, x, y);
+		y -= Math.signum(pixels) * (touchSlop + 1);
+		sendTouch(downTime, MotionEvent.ACTION_MOVE, x, y);
+		for (int i = 0; i < DRAG_STEPS; i++) {
+			y -= pixels / DRAG_STEPS;
+			sendTouch(downTime, MotionEvent.ACTION_MOVE, x, y);
+			frame();
+		}
+		sendTouch(downTime, MotionEvent.ACTION_UP, x, y);
+	}
+
+	private void sendTouch(long downTime, int action, float x, float y) {
+		mEvent = MotionEvent.obtain(downTime, SystemClock.uptimeMillis(),
+				action, x, y, 0);
+		getInstrumentation().runOnMainSync(mDispatchEvent);
+		mEvent.recycle();
+		mEvent = null;
+	}
+
+	/**
+	 * Let the frame callbacks run and draw what they produced.
+	 */
+	private void frame() throws InterruptedException {
+		Thread.sleep(FRAME_MS);
+		getInstrumentation().runOnMainSync(mDraw);
+	}
+
+	private void settle() throws InterruptedException {
+		for (int i = 0; i < SETTLE_FRAMES; i++) {
+			frame();
+		}
+	}
+
+	/**
+	 * Flip to the next page and back, settling on each, then peak.
+	 */
+	private void flipAndPeak() throws InterruptedException {
+		drag(HEIGHT * 3 / 4);
+		settle();
+		drag(-HEIGHT * 3 / 4);
+		settle();
+		getInstrumentation().runOnMainSync(mPeak);
+		settle();
+	}
+
+	public void testFlippingAllocatesNothing() throws Exception {
+		// fills the pools and scrap holders this needs
+		flipAndPeak();
+		flipAndPeak();
+
+		getInstrumentation().runOnMainSync(new Runnable() {
+
+			@Override
+			public void run() {
+				Debug.resetThreadAllocCount();
+				Debug.startAllocCounting();
+			}
+		});
+		flipAndPeak();
+		getInstrumentation().runOnMainSync(new Runnable() {
+
+			@Override
+			public void run() {
+				Debug.stopAllocCounting();
+				mAllocCount = Debug.getThreadAllocCount();
+			}
+		});
+
+		assertEquals(0, mAllocCount);
+	}
+
+}
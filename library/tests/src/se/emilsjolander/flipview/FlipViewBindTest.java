@@ -0,0 +1,86 @@
+package se.emilsjolander.flipview;
+
+import android.test.InstrumentationTestCase;
+import android.test.UiThreadTest;
+import android.view.View.MeasureSpec;
+
+/**
+ *
+ * @author emilsjolander
+ *
+ *         Checks that flipping one page only binds the page entering the
+ *         window of active pages, reusing the view of the page leaving it,
+ *         and that a larger window is bound as soon as it is set.
+ */
+public class FlipViewBindTest extends InstrumentationTestCase {
+
+	private static final int PAGE_COUNT = 20;
+	private static final int WIDTH = 480;
+	private static final int HEIGHT = 800;
+
+	private FlipView mFlipView;
+	private CountingAdapter mAdapter;
+
+	private void createFlipView() {
+		mFlipView = new FlipView(getInstrumentation().getTargetContext());
+		mAdapter = new CountingAdapter(getInstrumentation()
+				.getTargetContext(), PAGE_COUNT);
+		mFlipView.setAdapter(mAdapter);
+		mFlipView.measure(
+				MeasureSpec.makeMeasureSpec(WIDTH, MeasureSpec.EXACTLY),
+				MeasureSpec.makeMeasureSpec(HEIGHT, MeasureSpec.EXACTLY));
+		mFlipView.layout(0, 0, WIDTH, HEIGHT);
+	}
+
+	@UiThreadTest
+	public void testSetAdapterBindsCurrentAndNextPage() {
+		createFlipView();
+		assertEquals(2, mAdapter.getViewCount);
+		assertEquals(0, mAdapter.convertViewCount);
+	}
+
+	@UiThreadTest
+	public void testFlipForwardBindsOnePagePerCrossing() {
+		createFlipView();
+		for (int page = 1; page < PAGE_COUNT; page++) {
+			mAdapter.resetCounts();
+			mFlipView.flipTo(page);
+			assertEquals("getView calls flipping to page " + page,
+					page + 1 < PAGE_COUNT ? 1 : 0, mAdapter.getViewCount);
+		}
+	}
+
+	@UiThreadTest
+	public void testFlipBackwardBindsOnePagePerCrossing() {
+		createFlipView();
+		mFlipView.flipTo(PAGE_COUNT - 1);
+		for (int page = PAGE_COUNT - 2; page >= 0; page--) {
+			mAdapter.resetCounts();
+			mFlipView.flipTo(page);
+			assertEquals("getView calls flipping to page " + page,
+					page > 0 ? 1 : 0, mAdapter.getViewCount);
+		}
+	}
+
+	@UiThreadTest
+	public void testCrossingReusesViewOfLeavingPage() {
+		createFlipView();
+		mFlipView.flipTo(1);
+		mAdapter.resetCounts();
+		// page 0 leaves the window as page 3 enters it
+		mFlipView.flipTo(2);
+		assertEquals(1, mAdapter.getViewCount);
+		assertEquals(1, mAdapter.convertViewCount);
+	}
+
+	@UiThreadTest
+	public void testRaisingOffscreenPageLimitBindsWholeWindow() {
+		createFlipView();
+		mFlipView.flipTo(5);
+		mAdapter.resetCounts();
+		// pages 4 to 6 are bound, 2, 3, 7 and 8 enter the window
+		mFlipView.setOffscreenPageLimit(3);
+		assertEquals(4, mAdapter.getViewCount);
+	}
+
+}
@@ -0,0 +1,155 @@
+package se.emilsjolander.flipview;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.os.SystemClock;
+import android.test.InstrumentationTestCase;
+import android.test.UiThreadTest;
+import android.view.MotionEvent;
+import android.view.View.MeasureSpec;
+import android.view.ViewConfiguration;
+
+/**
+ *
+ * @author emilsjolander
+ *
+ *         Counts the pages a FlipView draws in a frame when settled, in the
+ *         middle of a flip and while over flipping. A flip is held at a
+ *         position by releasing a drag there, the frame is drawn before the
+ *         settle animation gets to move it.
+ */
+public class FlipViewDrawTest extends InstrumentationTestCase {
+
+	private static final int PAGE_COUNT = 5;
+	private static final int WIDTH = 480;
+	private static final int HEIGHT = 800;
+	// pixels of a vertical drag per degree flipped, see
+	// FlipMath.getFlipDistanceForPixels
+	private static final int PIXELS_PER_DEGREE = HEIGHT
+			/ FlipMath.FLIP_DISTANCE_PER_PAGE;
+
+	private FlipView mFlipView;
+	private CountingCanvas mCanvas;
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		mCanvas = new CountingCanvas(Bitmap.createBitmap(WIDTH, HEIGHT,
+				Bitmap.Config.ARGB_8888));
+	}
+
+	private Context getContext() {
+		return getInstrumentation().getTargetContext();
+	}
+
+	private void createFlipView(boolean opaquePages) {
+		mFlipView = new FlipView(getContext());
+		mFlipView.setAdapter(new CountingAdapter(getContext(), PAGE_COUNT,
+				opaquePages));
+		mFlipView.measure(
+				MeasureSpec.makeMeasureSpec(WIDTH, MeasureSpec.EXACTLY),
+				MeasureSpec.makeMeasureSpec(HEIGHT, MeasureSpec.EXACTLY));
+		mFlipView.layout(0, 0, WIDTH, HEIGHT);
+	}
+
+	/**
+	 * Drag vertically and release, leaving the flip where the drag ended.
+	 *
+	 * @param pixels
+	 *            positive to flip towards the next page
+	 */
+	private void drag(int pixels) {
+		final int touchSlop = ViewConfiguration.get(getContext())
+				.getScaledPagingTouchSlop();
+		final long downTime = SystemClock.uptimeMillis();
+		final float x = WIDTH / 2;
+		float y = HEIGHT / 2;
+		sendTouch(downTime, MotionEvent.ACTION_DOWN, x, y);
+		// start flipping, this move does not flip yet
+		y -= touchSlop + 1;
+		sendTouch(downTime, MotionEvent.ACTION_MOVE, x, y);
+		y -= pixels;
+		sendTouch(downTime, MotionEvent.ACTION_MOVE, x, y);
+		sendTouch(downTime, MotionEvent.ACTION_UP, x, y);
+	}
+
+	private void sendTouch(long downTime, int action, float x, float y) {
+		final MotionEvent ev = MotionEvent.obtain(downTime,
+				SystemClock.uptimeMillis(), action, x, y, 0);
+		mFlipView.onTouchEvent(ev);
+		ev.recycle();
+	}
+
+	/**
+	 *
+	 * @return the pages drawn by a frame
+	 */
+	private int drawFrame() {
+		mCanvas.pageDrawCount = 0;
+		mFlipView.draw(mCanvas);
+		return mCanvas.pageDrawCount;
+	}
+
+	/**
+	 *
+	 * @param degrees
+	 *            flipped towards the next page, between 0 and 180
+	 * @param opaquePages
+	 * @return the pages drawn by a frame of a flip at degrees
+	 */
+	private int drawFlipFrame(int degrees, boolean opaquePages) {
+		createFlipView(opaquePages);
+		drag(degrees * PIXELS_PER_DEGREE);
+		return drawFrame();
+	}
+
+	@UiThreadTest
+	public void testSettledDrawsOnePage() {
+		createFlipView(false);
+		assertEquals(1, drawFrame());
+	}
+
+	@UiThreadTest
+	public void testEdgeOnFlipDrawsStaticHalvesOnly() {
+		// the flipping page is seen edge on and not drawn
+		assertEquals(2, drawFlipFrame(90, false));
+	}
+
+	@UiThreadTest
+	public void testMidFlipDrawsThreeHalves() {
+		// transparent pages never hide what is behind them
+		for (int degrees = 1; degrees < 180; degrees += 11) {
+			assertEquals("pages drawn at " + degrees + " degrees",
+					degrees == 90 ? 2 : 3, drawFlipFrame(degrees, false));
+		}
+	}
+
+	@UiThreadTest
+	public void testMidFlipSkipsOccludedHalves() {
+		int transparentDraws = 0;
+		int opaqueDraws = 0;
+		for (int degrees = 1; degrees < 180; degrees++) {
+			final int transparent = drawFlipFrame(degrees, false);
+			final int opaque = drawFlipFrame(degrees, true);
+			assertTrue("pages drawn at " + degrees + " degrees",
+					opaque <= transparent && opaque >= 2);
+			transparentDraws += transparent;
+			opaqueDraws += opaque;
+		}
+		// close to lying flat an opaque flipping page hides the static half
+		// under it
+		assertTrue(opaqueDraws < transparentDraws);
+	}
+
+	@UiThreadTest
+	public void testOverFlipDrawsNoMissingPage() {
+		createFlipView(false);
+		mFlipView.setOverFlipMode(OverFlipMode.RUBBER_BAND);
+		// flip back from the first page
+		drag(-30 * PIXELS_PER_DEGREE);
+		// the current page on the static half and on the flipping half,
+		// there is no previous page to draw
+		assertEquals(2, drawFrame());
+	}
+
+}
@@ -0,0 +1,155 @@
+package se.emilsjolander.flipview;
+
+import android.content.Context;
+import android.os.SystemClock;
+import android.test.InstrumentationTestCase;
+import android.view.MotionEvent;
+import android.view.View.MeasureSpec;
+import android.view.ViewConfiguration;
+
+/**
+ *
+ * @author emilsjolander
+ *
+ *         Checks that a momentum fling across many pages jumps, binding only
+ *         the landing page and its neighbourhood, even though no jump
+ *         threshold is set. The fling is animated by the real frame
+ *         callbacks, so this does not run on the ui thread.
+ */
+public class FlipViewFlingTest extends InstrumentationTestCase {
+
+	private static final int PAGE_COUNT = 100;
+	private static final int WIDTH = 480;
+	private static final int HEIGHT = 800;
+	// slow enough that the fastest fling travels past the last page
+	private static final float FLING_FRICTION = 0.05f;
+	private static final long SETTLE_TIMEOUT_MS = 10000;
+	// longer than a jump, during which the current page does not change
+	private static final long SETTLED_AFTER_MS = 2000;
+
+	private FlipView mFlipView;
+	private CountingAdapter mAdapter;
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		getInstrumentation().runOnMainSync(new Runnable() {
+
+			@Override
+			public void run() {
+				mFlipView = new FlipView(getContext());
+				mFlipView.setMomentumFlingEnabled(true);
+				mFlipView.setFlingFriction(FLING_FRICTION);
+				mAdapter = new CountingAdapter(getContext(), PAGE_COUNT);
+				mFlipView.setAdapter(mAdapter);
+				mFlipView.measure(MeasureSpec.makeMeasureSpec(WIDTH,
+						MeasureSpec.EXACTLY), MeasureSpec.makeMeasureSpec(
+						HEIGHT, MeasureSpec.EXACTLY));
+				mFlipView.layout(0, 0, WIDTH, HEIGHT);
+			}
+		});
+	}
+
+	private Context getContext() {
+		return getInstrumentation().getTargetContext();
+	}
+
+	/**
+	 * A fast upwards swipe, flinging towards the last page.
+	 */
+	private void fling() {
+		getInstrumentation().runOnMainSync(new Runnable() {
+
+			@Override
+			public void run() {
+				final int touchSlop = ViewConfiguration.get(getContext())
+						.getScaledPagingTouchSlop();
+				final long downTime = SystemClock.uptimeMillis();
+				final float x = WIDTH / 2;
+				float y = HEIGHT - touchSlop - 1;
+				sendTouch(downTime, downTime, MotionEvent.ACTION_DOWN, x, y);
+				y -= touchSlop + 1;
+				sendTouch(downTime, downTime + 10, MotionEvent.ACTION_MOVE,
+						x, y);
+				for (int i = 2; i <= 4; i++) {
+					y -= HEIGHT / 8;
+					sendTouch(downTime, downTime + i * 10,
+							MotionEvent.ACTION_MOVE, x, y);
+				}
+				sendTouch(downTime, downTime + 50, MotionEvent.ACTION_UP, x,
+						y);
+			}
+		});
+	}
+
+	private void sendTouch(long downTime, long eventTime, int action,
+			float x, float y) {
+		final MotionEvent ev = MotionEvent.obtain(downTime, eventTime, action,
+				x, y, 0);
+		mFlipView.onTouchEvent(ev);
+		ev.recycle();
+	}
+
+	/**
+	 * Wait until the current page has not changed for a while.
+	 */
+	private void waitForSettle() throws InterruptedException {
+		final long timeout = SystemClock.uptimeMillis() + SETTLE_TIMEOUT_MS;
+		int page = -1;
+		long changed = SystemClock.uptimeMillis();
+		while (SystemClock.uptimeMillis() < timeout) {
+			getInstrumentation().waitForIdleSync();
+			final int current = getCurrentPage();
+			if (current != page) {
+				page = current;
+				changed = SystemClock.uptimeMillis();
+			} else if (SystemClock.uptimeMillis() - changed > SETTLED_AFTER_MS) {
+				return;
+			}
+			Thread.sleep(16);
+		}
+		fail("the fling did not settle");
+	}
+
+	private int getCurrentPage() {
+		final int[] page = new int[1];
+		getInstrumentation().runOnMainSync(new Runnable() {
+
+			@Override
+			public void run() {
+				page[0] = mFlipView.getCurrentPage();
+			}
+		});
+		return page[0];
+	}
+
+	public void testLongFlingBindsLandingPageOnly() throws Exception {
+		getInstrumentation().runOnMainSync(new Runnable() {
+
+			@Override
+			public void run() {
+				mAdapter.resetCounts();
+			}
+		});
+
+		fling();
+		waitForSettle();
+
+		final int[] getViewCount = new int[1];
+		getInstrumentation().runOnMainSync(new Runnable() {
+
+			@Override
+			public void run() {
+				getViewCount[0] = mAdapter.getViewCount;
+			}
+		});
+		final int page = getCurrentPage();
+		assertTrue("flung to page " + page, page > PAGE_COUNT / 2);
+		// the landing page and the pages on either side of it, however far
+		// the fling went
+		final int window = mFlipView.getOffscreenPageLimit() * 2 + 1;
+		assertTrue("getView calls " + getViewCount[0],
+				getViewCount[0] <= window);
+	}
+
+}
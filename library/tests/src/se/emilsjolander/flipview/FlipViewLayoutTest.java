@@ -0,0 +1,191 @@
+package se.emilsjolander.flipview;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.os.SystemClock;
+import android.test.InstrumentationTestCase;
+import android.test.UiThreadTest;
+import android.view.MotionEvent;
+import android.view.View.MeasureSpec;
+import android.view.ViewConfiguration;
+
+/**
+ *
+ * @author emilsjolander
+ *
+ *         Checks that changing pages, and starting and ending flips, neither
+ *         requests a layout nor measures or lays out pages which are already
+ *         at the size of the FlipView.
+ */
+public class FlipViewLayoutTest extends InstrumentationTestCase {
+
+	private static final int PAGE_COUNT = 10;
+	private static final int WIDTH = 480;
+	private static final int HEIGHT = 800;
+
+	/**
+	 * Counts the layouts requested of it.
+	 */
+	static class CountingFlipView extends FlipView {
+
+		int requestLayoutCount;
+
+		CountingFlipView(Context context) {
+			super(context);
+		}
+
+		@Override
+		public void requestLayout() {
+			requestLayoutCount++;
+			super.requestLayout();
+		}
+
+	}
+
+	private CountingFlipView mFlipView;
+	private CountingAdapter mAdapter;
+	private Canvas mCanvas;
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		mCanvas = new Canvas(Bitmap.createBitmap(WIDTH, HEIGHT,
+				Bitmap.Config.ARGB_8888));
+	}
+
+	private Context getContext() {
+		return getInstrumentation().getTargetContext();
+	}
+
+	private void createFlipView(int offscreenPageLimit) {
+		mFlipView = new CountingFlipView(getContext());
+		mFlipView.setOffscreenPageLimit(offscreenPageLimit);
+		mAdapter = new CountingAdapter(getContext(), PAGE_COUNT);
+		mFlipView.setAdapter(mAdapter);
+		layout();
+		mFlipView.draw(mCanvas);
+		mFlipView.requestLayoutCount = 0;
+	}
+
+	private void layout() {
+		mFlipView.measure(
+				MeasureSpec.makeMeasureSpec(WIDTH, MeasureSpec.EXACTLY),
+				MeasureSpec.makeMeasureSpec(HEIGHT, MeasureSpec.EXACTLY));
+		mFlipView.layout(0, 0, WIDTH, HEIGHT);
+	}
+
+	private int getPageMeasureCount() {
+		int count = 0;
+		for (PageView v : mAdapter.views) {
+			count += v.measureCount;
+		}
+		return count;
+	}
+
+	private int getPageLayoutCount() {
+		int count = 0;
+		for (PageView v : mAdapter.views) {
+			count += v.layoutCount;
+		}
+		return count;
+	}
+
+	private int getPageRequestLayoutCount() {
+		int count = 0;
+		for (PageView v : mAdapter.views) {
+			count += v.requestLayoutCount;
+		}
+		return count;
+	}
+
+	/**
+	 * Drag vertically and release, the frame drawn afterwards is a flip.
+	 *
+	 * @param pixels
+	 *            positive to flip towards the next page
+	 */
+	private void drag(int pixels) {
+		final int touchSlop = ViewConfiguration.get(getContext())
+				.getScaledPagingTouchSlop();
+		final long downTime = SystemClock.uptimeMillis();
+		final float x = WIDTH / 2;
+		float y = HEIGHT / 2;
+		sendTouch(downTime, MotionEvent.ACTION_DOWN, x, y);
+		y -= touchSlop + 1;
+		sendTouch(downTime, MotionEvent.ACTION_MOVE, x, y);
+		y -= pixels;
+		sendTouch(downTime, MotionEvent.ACTION_MOVE, x, y);
+		sendTouch(downTime, MotionEvent.ACTION_UP, x, y);
+	}
+
+	private void sendTouch(long downTime, int action, float x, float y) {
+		final MotionEvent ev = MotionEvent.obtain(downTime,
+				SystemClock.uptimeMillis(), action, x, y, 0);
+		mFlipView.onTouchEvent(ev);
+		ev.recycle();
+	}
+
+	@UiThreadTest
+	public void testPageChangesRequestNoLayout() {
+		createFlipView(1);
+		for (int page = 1; page < PAGE_COUNT; page++) {
+			mFlipView.flipTo(page);
+			mFlipView.draw(mCanvas);
+		}
+		for (int page = PAGE_COUNT - 2; page >= 0; page--) {
+			mFlipView.flipTo(page);
+			mFlipView.draw(mCanvas);
+		}
+		assertEquals(0, mFlipView.requestLayoutCount);
+		assertEquals(0, getPageRequestLayoutCount());
+	}
+
+	@UiThreadTest
+	public void testFlipRequestsNoLayout() {
+		createFlipView(1);
+		// starts a flip, attaching the pages on both sides
+		drag(HEIGHT / 4);
+		mFlipView.draw(mCanvas);
+		// moves the flip on to the next page, binding the page after it
+		mFlipView.flipTo(1);
+		mFlipView.draw(mCanvas);
+		assertEquals(0, mFlipView.requestLayoutCount);
+		assertEquals(0, getPageRequestLayoutCount());
+	}
+
+	@UiThreadTest
+	public void testOnlyNewViewsAreMeasured() {
+		createFlipView(2);
+		final int measureCount = getPageMeasureCount();
+		final int layoutCount = getPageLayoutCount();
+		final int viewCount = mAdapter.views.size();
+
+		for (int page = 1; page < PAGE_COUNT; page++) {
+			mFlipView.flipTo(page);
+			mFlipView.draw(mCanvas);
+		}
+
+		// every view is measured and laid out once, when it is created,
+		// convert views already have the size of the page
+		final int newViewCount = mAdapter.views.size() - viewCount;
+		assertEquals(measureCount + newViewCount, getPageMeasureCount());
+		assertEquals(layoutCount + newViewCount, getPageLayoutCount());
+	}
+
+	@UiThreadTest
+	public void testLayoutPassSkipsPagesAtSize() {
+		createFlipView(2);
+		mFlipView.flipTo(3);
+		final int measureCount = getPageMeasureCount();
+		final int layoutCount = getPageLayoutCount();
+
+		// a layout pass of the parent, with the FlipView at the same size
+		mFlipView.forceLayout();
+		layout();
+
+		assertEquals(measureCount, getPageMeasureCount());
+		assertEquals(layoutCount, getPageLayoutCount());
+	}
+
+}
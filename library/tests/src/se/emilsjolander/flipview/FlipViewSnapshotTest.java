@@ -0,0 +1,121 @@
+package se.emilsjolander.flipview;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.os.SystemClock;
+import android.test.InstrumentationTestCase;
+import android.test.UiThreadTest;
+import android.view.MotionEvent;
+import android.view.View.MeasureSpec;
+import android.view.ViewConfiguration;
+
+/**
+ *
+ * @author emilsjolander
+ *
+ *         Checks that the snapshot cache never shows the old contents of an
+ *         item which changed, also when its page was outside of the window
+ *         of active pages at the time of the change.
+ */
+public class FlipViewSnapshotTest extends InstrumentationTestCase {
+
+	private static final int PAGE_COUNT = 10;
+	private static final int WIDTH = 480;
+	private static final int HEIGHT = 800;
+	private static final int SNAPSHOT_CACHE_SIZE = 16 * 1024 * 1024;
+
+	private FlipView mFlipView;
+	private CountingAdapter mAdapter;
+	private Canvas mCanvas;
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		mCanvas = new Canvas(Bitmap.createBitmap(WIDTH, HEIGHT,
+				Bitmap.Config.ARGB_8888));
+		mFlipView = new FlipView(getContext());
+		mFlipView.setSnapshotFlipEnabled(true);
+		mFlipView.setSnapshotCacheMaxSize(SNAPSHOT_CACHE_SIZE);
+		mAdapter = new CountingAdapter(getContext(), PAGE_COUNT);
+		mFlipView.setAdapter(mAdapter);
+		mFlipView.measure(
+				MeasureSpec.makeMeasureSpec(WIDTH, MeasureSpec.EXACTLY),
+				MeasureSpec.makeMeasureSpec(HEIGHT, MeasureSpec.EXACTLY));
+		mFlipView.layout(0, 0, WIDTH, HEIGHT);
+	}
+
+	private Context getContext() {
+		return getInstrumentation().getTargetContext();
+	}
+
+	/**
+	 * Drag vertically and release, the frame drawn afterwards is a flip.
+	 *
+	 * @param pixels
+	 *            positive to flip towards the next page
+	 */
+	private void drag(int pixels) {
+		final int touchSlop = ViewConfiguration.get(getContext())
+				.getScaledPagingTouchSlop();
+		final long downTime = SystemClock.uptimeMillis();
+		final float x = WIDTH / 2;
+		float y = HEIGHT / 2;
+		sendTouch(downTime, MotionEvent.ACTION_DOWN, x, y);
+		y -= touchSlop + 1;
+		sendTouch(downTime, MotionEvent.ACTION_MOVE, x, y);
+		y -= pixels;
+		sendTouch(downTime, MotionEvent.ACTION_MOVE, x, y);
+		sendTouch(downTime, MotionEvent.ACTION_UP, x, y);
+	}
+
+	private void sendTouch(long downTime, int action, float x, float y) {
+		final MotionEvent ev = MotionEvent.obtain(downTime,
+				SystemClock.uptimeMillis(), action, x, y, 0);
+		mFlipView.onTouchEvent(ev);
+		ev.recycle();
+	}
+
+	/**
+	 *
+	 * @param position
+	 * @return how often the views bound to position have been drawn
+	 */
+	private int getDrawCount(int position) {
+		int count = 0;
+		for (PageView v : mAdapter.views) {
+			if (v.position == position) {
+				count += v.drawCount;
+			}
+		}
+		return count;
+	}
+
+	private void resetDrawCounts() {
+		for (PageView v : mAdapter.views) {
+			v.drawCount = 0;
+		}
+	}
+
+	@UiThreadTest
+	public void testChangedItemOutsideWindowIsNotDrawnFromCache() {
+		// snapshot pages 2 and 3 by flipping from 2 towards 3, then leave
+		// them so their snapshots are cached
+		mFlipView.flipTo(2);
+		drag(HEIGHT / 4);
+		mFlipView.draw(mCanvas);
+		mFlipView.flipTo(0);
+		assertTrue(mFlipView.getSnapshotCacheSize() > 0);
+
+		// page 3 is outside of the window of page 0
+		mFlipView.notifyItemRangeChanged(3, 1);
+
+		// flipping towards page 3 has to draw its view again
+		mFlipView.flipTo(2);
+		resetDrawCounts();
+		drag(HEIGHT / 4);
+		mFlipView.draw(mCanvas);
+		assertTrue(getDrawCount(3) > 0);
+	}
+
+}
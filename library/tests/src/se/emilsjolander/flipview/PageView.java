@@ -0,0 +1,62 @@
+package se.emilsjolander.flipview;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.view.View;
+
+/**
+ *
+ * @author emilsjolander
+ *
+ *         A page filling itself with a single drawColor call, so a
+ *         CountingCanvas can count how often a page is drawn. It also counts
+ *         its draws, measure and layout passes and layout requests.
+ */
+class PageView extends View {
+
+	private final boolean mOpaque;
+
+	// the position the adapter last bound the view to
+	int position;
+	int measureCount;
+	int layoutCount;
+	int requestLayoutCount;
+	int drawCount;
+
+	PageView(Context context, boolean opaque) {
+		super(context);
+		mOpaque = opaque;
+	}
+
+	@Override
+	public boolean isOpaque() {
+		return mOpaque;
+	}
+
+	@Override
+	protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+		measureCount++;
+		super.onMeasure(widthMeasureSpec, heightMeasureSpec);
+	}
+
+	@Override
+	protected void onLayout(boolean changed, int left, int top, int right,
+			int bottom) {
+		layoutCount++;
+		super.onLayout(changed, left, top, right, bottom);
+	}
+
+	@Override
+	public void requestLayout() {
+		requestLayoutCount++;
+		super.requestLayout();
+	}
+
+	@Override
+	protected void onDraw(Canvas canvas) {
+		drawCount++;
+		canvas.drawColor(mOpaque ? Color.WHITE : Color.TRANSPARENT);
+	}
+
+}
@@ -0,0 +1,115 @@
+package se.emilsjolander.flipview;
+
+import android.graphics.Camera;
+import android.graphics.Matrix;
+import android.test.InstrumentationTestCase;
+import android.util.Log;
+
+/**
+ *
+ * @author emilsjolander
+ *
+ *         Times creating the transform of the flipping half every frame with
+ *         Camera and Matrix, as FlipView did before it kept a
+ *         QuantizedMatrixTable, against looking it up in the table. Unlike
+ *         PerspectiveMatrixBenchmark of the benchmark module this runs the
+ *         real platform path, including its JNI calls. The results are
+ *         logged under the tag of this class, nothing is asserted about
+ *         them. Run it on a device with
+ *
+ *         ./gradlew :library:connectedInstrumentTest
+ */
+public class PerspectiveMatrixDeviceBenchmark extends InstrumentationTestCase {
+
+	private static final String TAG = "PerspectiveMatrixDeviceBenchmark";
+
+	private static final int WIDTH = 1080;
+	private static final int HEIGHT = 1920;
+	// a one page flip of 300ms at 60 frames per second
+	private static final int FRAMES_PER_FLIP = 18;
+	private static final int WARMUP_FRAMES = 20000;
+	private static final int MEASURED_FRAMES = 100000;
+
+	private final Camera mCamera = new Camera();
+	private final Matrix mMatrix = new Matrix();
+	private final float[] mValues = new float[9];
+	private final QuantizedMatrixTable mTable = new QuantizedMatrixTable(-90,
+			90, new QuantizedMatrixTable.MatrixFactory() {
+
+				@Override
+				public void createMatrix(float degrees, float[] values) {
+					createFlipMatrix(degrees, values);
+				}
+			});
+	private int mFrame;
+	// keeps the results alive so the work can't be optimized away
+	private float mSink;
+
+	public void testPerFrameMatrixAgainstTable() {
+		runPerFrameMatrix(WARMUP_FRAMES);
+		runQuantizedTable(WARMUP_FRAMES);
+
+		long start = System.nanoTime();
+		runPerFrameMatrix(MEASURED_FRAMES);
+		final long perFrameNs = (System.nanoTime() - start) / MEASURED_FRAMES;
+
+		start = System.nanoTime();
+		runQuantizedTable(MEASURED_FRAMES);
+		final long tableNs = (System.nanoTime() - start) / MEASURED_FRAMES;
+
+		Log.i(TAG, "per frame matrix: " + perFrameNs + "ns/frame");
+		Log.i(TAG, "quantized table: " + tableNs + "ns/frame (" + mSink + ")");
+	}
+
+	public void testTableMatchesPerFrameMatrix() {
+		final float[] expected = new float[9];
+		for (int frame = 0; frame <= FRAMES_PER_FLIP; frame++) {
+			final float degrees = nextAngle();
+			createFlipMatrix(degrees, expected);
+			mTable.getMatrix(degrees, mValues);
+			for (int i = 0; i < 9; i++) {
+				// the angle is off by at most an eighth of a degree
+				assertEquals("value " + i + " at " + degrees + " degrees",
+						expected[i], mValues[i],
+						Math.max(Math.abs(expected[i]) * 0.01f, 1e-4f));
+			}
+		}
+	}
+
+	private void runPerFrameMatrix(int frames) {
+		for (int i = 0; i < frames; i++) {
+			createFlipMatrix(nextAngle(), mValues);
+			mSink += mValues[8];
+		}
+	}
+
+	private void runQuantizedTable(int frames) {
+		for (int i = 0; i < frames; i++) {
+			mTable.getMatrix(nextAngle(), mValues);
+			mSink += mValues[8];
+		}
+	}
+
+	private float nextAngle() {
+		final float degreesFlipped = 180f * mFrame / FRAMES_PER_FLIP;
+		mFrame = (mFrame + 1) % (FRAMES_PER_FLIP + 1);
+		return degreesFlipped > 90 ? degreesFlipped - 180 : degreesFlipped;
+	}
+
+	/**
+	 * The per frame path of FlipView, Camera.rotateX followed by
+	 * FlipView.positionMatrix.
+	 */
+	private void createFlipMatrix(float degrees, float[] values) {
+		mCamera.save();
+		mCamera.rotateX(degrees);
+		mCamera.getMatrix(mMatrix);
+		mCamera.restore();
+		mMatrix.preScale(0.25f, 0.25f);
+		mMatrix.postScale(4.0f, 4.0f);
+		mMatrix.preTranslate(-WIDTH / 2, -HEIGHT / 2);
+		mMatrix.postTranslate(WIDTH / 2, HEIGHT / 2);
+		mMatrix.getValues(values);
+	}
+
+}
@@ -1,7 +1,9 @@
 package se.emilsjolander.flipview;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import android.content.Context;
 import android.view.LayoutInflater;
@@ -12,7 +14,7 @@ import android.widget.BaseAdapter;
 import android.widget.Button;
 import android.widget.TextView;
 
-public class FlipAdapter extends BaseAdapter implements OnClickListener {
+public class FlipAdapter extends BaseAdapter implements OnClickListener, ItemPositionLookup, PageUpdateAdapter {
 	
 	public interface Callback{
 		public void onPageRequested(int page);
@@ -22,9 +24,13 @@ public class FlipAdapter extends BaseAdapter implements OnClickListener {
 		static long id = 0;
 		
 		long mId;
+		// position relative to the first item ever added, prepended items
+		// get negative slots so that no slot ever has to be updated
+		int mSlot;
 		
-		public Item() {
+		public Item(int slot) {
 			mId = id++;
+			mSlot = slot;
 		}
 		
 		long getId(){
@@ -35,18 +41,36 @@ public class FlipAdapter extends BaseAdapter implements OnClickListener {
 	private LayoutInflater inflater;
 	private Callback callback;
 	private List<Item> items = new ArrayList<Item>();
+	private Map<Long, Item> itemsById = new HashMap<Long, Item>();
+	private int firstSlot = 0;
+	private PageUpdateObservable pageUpdateObservable = new PageUpdateObservable();
 	
 	public FlipAdapter(Context context) {
 		inflater = LayoutInflater.from(context);
 		for(int i = 0 ; i<10 ; i++){
-			items.add(new Item());
+			addItem(new Item(firstSlot + items.size()), items.size());
 		}
 	}
+	
+	private void addItem(Item item, int position){
+		items.add(position, item);
+		itemsById.put(item.getId(), item);
+	}
 
 	public void setCallback(Callback callback) {
 		this.callback = callback;
 	}
 
+	@Override
+	public void registerPageUpdateObserver(PageUpdateObserver observer) {
+		pageUpdateObservable.registerObserver(observer);
+	}
+
+	@Override
+	public void unregisterPageUpdateObserver(PageUpdateObserver observer) {
+		pageUpdateObservable.unregisterObserver(observer);
+	}
+
 	@Override
 	public int getCount() {
 		return items.size();
@@ -67,6 +91,12 @@ public class FlipAdapter extends BaseAdapter implements OnClickListener {
 		return true;
 	}
 
+	@Override
+	public int getPositionForItemId(long id) {
+		Item item = itemsById.get(id);
+		return item == null ? -1 : item.mSlot - firstSlot;
+	}
+
 	@Override
 	public View getView(int position, View convertView, ViewGroup parent) {
 		ViewHolder holder;
@@ -116,17 +146,19 @@ public class FlipAdapter extends BaseAdapter implements OnClickListener {
 	}
 
 	public void addItems(int amount) {
+		int positionStart = items.size();
 		for(int i = 0 ; i<amount ; i++){
-			items.add(new Item());
+			addItem(new Item(firstSlot + items.size()), items.size());
 		}
-		notifyDataSetChanged();
+		pageUpdateObservable.notifyItemRangeInserted(positionStart, amount);
 	}
 
 	public void addItemsBefore(int amount) {
 		for(int i = 0 ; i<amount ; i++){
-			items.add(0, new Item());
+			firstSlot--;
+			addItem(new Item(firstSlot), 0);
 		}
-		notifyDataSetChanged();
+		pageUpdateObservable.notifyItemRangeInserted(0, amount);
 	}
 
 }